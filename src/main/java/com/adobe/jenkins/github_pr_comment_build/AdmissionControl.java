@@ -0,0 +1,93 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.model.Computer;
+import jenkins.model.Jenkins;
+
+/**
+ * Decides whether the controller has room for the builds triggered by an event. The controller is overloaded when
+ * the buildable items of the queue exceed the idle executors by the configured threshold. Capacity that clouds could
+ * still provision is not known in advance, and only becomes visible once its agents are online.
+ */
+final class AdmissionControl {
+    /**
+     * What happens to a triggered build while the controller is overloaded.
+     */
+    enum Action {
+        /**
+         * The build is scheduled with a longer quiet period.
+         */
+        DEFER,
+        /**
+         * The trigger is added to the queued build of the job if there is one not yet handed to an executor, keeping
+         * its quiet period, and deferred otherwise.
+         */
+        MERGE,
+        /**
+         * The trigger is dropped.
+         */
+        REJECT;
+
+        /**
+         * Parses a configured action.
+         * @param name the name of the action
+         * @return the action, {@link #DEFER} if unknown
+         */
+        static Action parse(String name) {
+            for (Action action : values()) {
+                if (action.name().equals(name)) {
+                    return action;
+                }
+            }
+            return DEFER;
+        }
+    }
+
+    /**
+     * Admission control accepting all builds.
+     */
+    private static final AdmissionControl DISABLED = new AdmissionControl(0, 0, false);
+
+    private final int buildable;
+    private final int idle;
+    private final boolean overloaded;
+
+    private AdmissionControl(int buildable, int idle, boolean overloaded) {
+        this.buildable = buildable;
+        this.idle = idle;
+        this.overloaded = overloaded;
+    }
+
+    /**
+     * Measures the current load of the controller.
+     * @param config the configuration
+     * @return the admission control for the builds of an event
+     */
+    static AdmissionControl evaluate(TriggerGlobalConfiguration config) {
+        int threshold = config.getAdmissionQueueThreshold();
+        if (threshold <= 0) {
+            return DISABLED;
+        }
+        Jenkins jenkins = Jenkins.get();
+        int buildable = jenkins.getQueue().countBuildableItems();
+        int idle = 0;
+        for (Computer computer : jenkins.getComputers()) {
+            if (computer.isOnline() && computer.isAcceptingTasks()) {
+                idle += computer.countIdle();
+            }
+        }
+        return new AdmissionControl(buildable, idle, buildable - idle >= threshold);
+    }
+
+    /**
+     * Whether triggered builds are subject to the configured action.
+     * @return if the controller is overloaded
+     */
+    boolean isOverloaded() {
+        return overloaded;
+    }
+
+    @Override
+    public String toString() {
+        return buildable + " buildable items, " + idle + " idle executors";
+    }
+}
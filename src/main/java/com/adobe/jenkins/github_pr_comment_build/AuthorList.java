@@ -0,0 +1,93 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A list of GitHub logins and login patterns, checked locally without any GitHub request. Entries are separated by
+ * whitespace or commas, and may use {@code *} and {@code ?} wildcards, such as {@code *[bot]}. Logins are compared
+ * case insensitively, as on GitHub.
+ */
+final class AuthorList {
+    /**
+     * The empty list.
+     */
+    static final AuthorList EMPTY = new AuthorList(new HashSet<>(), new ArrayList<>());
+
+    private final Set<String> logins;
+    private final List<Pattern> patterns;
+
+    private AuthorList(Set<String> logins, List<Pattern> patterns) {
+        this.logins = logins;
+        this.patterns = patterns;
+    }
+
+    /**
+     * Parses a list.
+     * @param text the entries, may be null
+     * @return the list
+     */
+    static AuthorList parse(String text) {
+        if (text == null || text.isBlank()) {
+            return EMPTY;
+        }
+        Set<String> logins = new HashSet<>();
+        List<Pattern> patterns = new ArrayList<>();
+        for (String entry : text.trim().toLowerCase(Locale.ROOT).split("[\\s,]+")) {
+            if (entry.indexOf('*') < 0 && entry.indexOf('?') < 0) {
+                logins.add(entry);
+                continue;
+            }
+            StringBuilder regex = new StringBuilder();
+            int start = 0;
+            for (int i = 0; i < entry.length(); i++) {
+                char c = entry.charAt(i);
+                if (c == '*' || c == '?') {
+                    if (i > start) {
+                        regex.append(Pattern.quote(entry.substring(start, i)));
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                    start = i + 1;
+                }
+            }
+            if (start < entry.length()) {
+                regex.append(Pattern.quote(entry.substring(start)));
+            }
+            patterns.add(Pattern.compile(regex.toString()));
+        }
+        return new AuthorList(logins, patterns);
+    }
+
+    /**
+     * Whether the list is empty.
+     * @return if no login matches
+     */
+    boolean isEmpty() {
+        return logins.isEmpty() && patterns.isEmpty();
+    }
+
+    /**
+     * Checks a login against the list.
+     * @param login the GitHub login
+     * @return whether the login is listed or matches a pattern
+     */
+    boolean contains(String login) {
+        if (login == null || isEmpty()) {
+            return false;
+        }
+        String normalized = login.toLowerCase(Locale.ROOT);
+        if (logins.contains(normalized)) {
+            return true;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(normalized).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -5,23 +5,35 @@ import hudson.model.Cause;
 import hudson.model.CauseAction;
 import hudson.model.Item;
 import hudson.model.Job;
+import hudson.model.Queue;
 import hudson.security.ACL;
 import hudson.security.ACLContext;
 import jenkins.branch.BranchProperty;
 import jenkins.branch.MultiBranchProject;
 import jenkins.branch.OrganizationFolder;
+import jenkins.model.Jenkins;
 import jenkins.model.ParameterizedJobMixIn;
 import jenkins.scm.api.SCMHead;
 import jenkins.scm.api.SCMSource;
 import jenkins.scm.api.SCMSourceOwner;
 import jenkins.scm.api.SCMSourceOwners;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
 import net.sf.json.JSONObject;
 import org.jenkinsci.plugins.github.extension.GHEventsSubscriber;
 import org.jenkinsci.plugins.github_branch_source.GitHubSCMSource;
 import org.jenkinsci.plugins.github_branch_source.PullRequestSCMHead;
+import org.kohsuke.github.GHPermissionType;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -42,6 +54,16 @@ public abstract class BasePRGHEventSubscriber<T extends TriggerBranchProperty, U
      * Regex pattern for a GitHub repository.
      */
     protected static final Pattern REPOSITORY_NAME_PATTERN = Pattern.compile("https?://([^/]+)/([^/]+)/([^/]+)");
+    /**
+     * How long the handling of an event waits for GitHub before treating permissions and head commits as unknown.
+     */
+    private static final long DEADLINE_MILLIS =
+            SystemProperties.getLong(BasePRGHEventSubscriber.class.getName() + ".deadlineMillis", 10_000L);
+    /**
+     * Number of re-checks of unknown permissions before a trigger is dropped.
+     */
+    private static final int RECHECK_ATTEMPTS =
+            SystemProperties.getInteger(BasePRGHEventSubscriber.class.getName() + ".recheckAttempts", 5);
 
     protected abstract Class<T> getTriggerClass();
 
@@ -77,6 +99,57 @@ public abstract class BasePRGHEventSubscriber<T extends TriggerBranchProperty, U
         return changedRepository;
     }
 
+    /**
+     * Retrieves the head commit of a pull request from its JSON representation.
+     * @param pullRequest the pull request
+     * @return the commit hash, or null if the pull request head is not part of the JSON
+     */
+    protected static String getHeadSha(JSONObject pullRequest) {
+        JSONObject head = pullRequest.optJSONObject("head");
+        return head == null ? null : head.optString("sha", null);
+    }
+
+    /**
+     * Retrieves the head commit of a pull request from its shared metadata.
+     * @param job a job of the pull request
+     * @param pullRequestKey the key of the pull request
+     * @param pullRequestId the pull request number
+     * @param deadlineNanos the {@link System#nanoTime()} after which the head commit is treated as unknown
+     * @return the commit hash, or null if it could not be retrieved in time
+     */
+    private static String getHeadSha(Job<?, ?> job, String pullRequestKey, int pullRequestId, long deadlineNanos) {
+        try {
+            PullRequestMetadata metadata = PullRequestMetadata.get(pullRequestKey, job, pullRequestId, deadlineNanos);
+            return metadata == null ? null : metadata.getHeadSha();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Could not retrieve the head commit of " + pullRequestKey, e);
+            return null;
+        }
+    }
+
+    /**
+     * Adds a cause to the queued build of a job. Its quiet period is left as is, whereas scheduling the job again
+     * would start it as soon as the shorter of both quiet periods. The queue lock is held so that the item cannot
+     * leave the queue in between, and pending items, already handed to an executor, are left alone.
+     * @param job the job
+     * @param cause the cause to add
+     * @return true if the job had a queued build not started yet, false if nothing was done
+     */
+    private static boolean foldIntoQueued(Job<?, ?> job, Cause cause) {
+        if (!(job instanceof Queue.Task task)) {
+            return false;
+        }
+        boolean[] folded = new boolean[1];
+        Queue.withLock(() -> {
+            Queue.Item item = Jenkins.get().getQueue().getItem(task);
+            if (item != null && !(item instanceof Queue.BuildableItem buildable && buildable.isPending())) {
+                new CauseAction(cause).foldIntoExisting(item, task, Collections.emptyList());
+                folded[0] = true;
+            }
+        });
+        return folded[0];
+    }
+
     /**
      * Called after a job is started successfully, may be used for adding reactions or performing other actions.
      * @param branchProp the branch property
@@ -87,92 +160,470 @@ public abstract class BasePRGHEventSubscriber<T extends TriggerBranchProperty, U
         // no-op
     }
 
-    protected void checkAndRunJobs(GitHubRepositoryName changedRepository, int pullRequestId, String author,
-                                   U postStartParam, BiFunction<Job<?, ?>, T, Cause> getCauseFunction) {
+    /**
+     * Called when an event matched a trigger but was refused by a trigger limit, may be used for adding reactions.
+     * @param branchProp the branch property of the first matching job
+     * @param job the first matching job
+     * @param postStartParam an arbitrary parameter
+     */
+    protected void postThrottled(T branchProp, Job<?, ?> job, U postStartParam) {
+        // no-op
+    }
+
+    /**
+     * Finds the jobs of a pull request, and starts those having a trigger property that accepts the event.
+     * @param trace the decision trace of the event, finished by this method
+     * @param changedRepository the repository of the event
+     * @param pullRequestId the pull request number
+     * @param author the GitHub login of the author of the event
+     * @param postStartParam an arbitrary parameter passed to {@link #postStartJob(TriggerBranchProperty, Job, Object)}
+     * @param getCauseFunction the function computing the cause, or null if a property does not trigger
+     */
+    protected void checkAndRunJobs(DecisionTrace trace, GitHubRepositoryName changedRepository, int pullRequestId,
+                                   String author, U postStartParam, BiFunction<Job<?, ?>, T, Cause> getCauseFunction) {
+        checkAndRunJobs(trace, changedRepository, pullRequestId, author, null, postStartParam, getCauseFunction);
+    }
+
+    /**
+     * Finds the jobs of a pull request, and starts those having a trigger property that accepts the event.
+     * @param trace the decision trace of the event, finished by this method
+     * @param changedRepository the repository of the event
+     * @param pullRequestId the pull request number
+     * @param author the GitHub login of the author of the event
+     * @param headSha the head commit of the pull request from the event, or null if the event does not carry it
+     * @param postStartParam an arbitrary parameter passed to {@link #postStartJob(TriggerBranchProperty, Job, Object)}
+     * @param getCauseFunction the function computing the cause, or null if a property does not trigger
+     */
+    protected void checkAndRunJobs(DecisionTrace trace, GitHubRepositoryName changedRepository, int pullRequestId,
+                                   String author, String headSha, U postStartParam,
+                                   BiFunction<Job<?, ?>, T, Cause> getCauseFunction) {
+        trace.setPullRequest(changedRepository.getUserName() + "/" + changedRepository.getRepositoryName(),
+                pullRequestId, author);
         try (ACLContext aclContext = as(ACL.SYSTEM)) {
-            boolean jobFound = false;
-            Set<Job<?, ?>> alreadyTriggeredJobs = new HashSet<>();
-            for (final SCMSourceOwner owner : SCMSourceOwners.all()) {
-                for (SCMSource source : owner.getSCMSources()) {
-                    if (!(source instanceof GitHubSCMSource gitHubSCMSource)) {
+            TriggerGlobalConfiguration config = TriggerGlobalConfiguration.get();
+            if (config.getDeniedAuthorList().contains(author)) {
+                LOGGER.log(Level.FINE, "Ignoring PR event by denied user {0}", author);
+                trace.record(DecisionTrace.Stage.PERMISSION, null, "author denied");
+                return;
+            }
+            // Listed authors are decided locally, without asking GitHub for their permissions
+            boolean trusted = config.getTrustedAuthorList().contains(author);
+
+            // Gather all triggering decisions first so that permissions are looked up concurrently
+            Map<Job<?, ?>, List<TriggerMatch<T>>> matches =
+                    findMatches(trace, changedRepository, pullRequestId, getCauseFunction);
+            if (matches == null) {
+                LOGGER.log(Level.FINE, "PR event on {0}:{1}/{2} did not match any job",
+                        new Object[] {
+                                changedRepository.getHost(), changedRepository.getUserName(),
+                                changedRepository.getRepositoryName()
+                        }
+                );
+                trace.record(DecisionTrace.Stage.PR_MATCH, null, "no job");
+                return;
+            }
+
+            long limitPeriod = TimeUnit.MINUTES.toMillis(config.getTriggerLimitPeriodMinutes());
+            if (!matches.isEmpty() && !TriggerThrottle.AUTHORS.tryAcquire(
+                    (changedRepository.getHost() + "/" + author).toLowerCase(Locale.ROOT),
+                    config.getAuthorTriggerLimit(), limitPeriod)) {
+                LOGGER.log(Level.INFO, "Throttled PR event by {0} on {1}:{2}/{3}, too many triggers by this author",
+                        new Object[] {
+                                author, changedRepository.getHost(), changedRepository.getUserName(),
+                                changedRepository.getRepositoryName()
+                        }
+                );
+                trace.record(DecisionTrace.Stage.THROTTLE, null, "author limit reached");
+                postThrottled(matches, postStartParam);
+                return;
+            }
+            String pullRequestKey = PullRequestMetadata.key(changedRepository.getHost(),
+                    changedRepository.getUserName(), changedRepository.getRepositoryName(), pullRequestId);
+            List<Job<?, ?>> jobs = new ArrayList<>(matches.keySet());
+            FanOutSchedule fanOut = new FanOutSchedule(jobs.size(), config.getFanOutConcurrency(),
+                    config.getFanOutWindowSeconds());
+            if (fanOut.isSpread()) {
+                // The builds giving feedback soonest start right away, the others are spread over the window
+                FanOutSchedule.sortShortestFirst(jobs);
+            }
+            EventSchedule schedule = new EventSchedule(config, changedRepository, pullRequestId, pullRequestKey,
+                    headSha, fanOut, postStartParam);
+
+            long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MILLIS);
+            PermissionLookup permissions = new PermissionLookup(author, deadlineNanos);
+            matches.forEach((job, jobMatches) -> {
+                if (jobMatches.stream().anyMatch(match -> match.requiresLookup(author, trusted))) {
+                    permissions.start(job);
+                }
+            });
+
+            for (Job<?, ?> job : jobs) {
+                for (TriggerMatch<T> match : matches.get(job)) {
+                    if (match.branchProp.getDeniedAuthorList().contains(author)) {
+                        LOGGER.log(Level.FINE, "User {0} is denied for job {1}",
+                                new Object[] { author, job.getFullName() });
+                        trace.record(DecisionTrace.Stage.PERMISSION, job.getFullName(), "author denied");
                         continue;
                     }
-                    if (gitHubSCMSource.getRepoOwner().equalsIgnoreCase(changedRepository.getUserName()) &&
-                            gitHubSCMSource.getRepository().equalsIgnoreCase(changedRepository.getRepositoryName())) {
-                        OrganizationFolder orgFolder = owner instanceof OrganizationFolder ? (OrganizationFolder) owner : null;
-                        for (Job<?, ?> job : owner.getAllJobs()) {
-                            if (orgFolder != null) {
-                                if (SCMSource.SourceByItem.findSource(job) == source) {
-                                    LOGGER.log(Level.FINE,
-                                            "SCM owner is an organization folder and SCM source for job {0} matches",
-                                            job.getFullName());
-                                } else {
-                                    continue;
-                                }
-                            }
-                            if (SCMHead.HeadByItem.findHead(job) instanceof PullRequestSCMHead prHead &&
-                                    prHead.getNumber() == pullRequestId) {
-                                boolean propFound = false;
-                                for (BranchProperty prop : ((MultiBranchProject) job.getParent()).getProjectFactory().
-                                        getBranch(job).getProperties()) {
-                                    if (!(getTriggerClass().isAssignableFrom(prop.getClass()))) {
-                                        continue;
-                                    }
-                                    T branchProp = getTriggerClass().cast(prop);
-                                    propFound = true;
-                                    if (!GithubHelper.isAuthorized(job, author, branchProp.getMinimumPermissions())) {
-                                        continue;
-                                    }
-                                    Cause cause = getCauseFunction.apply(job, branchProp);
-                                    if (cause == null) {
-                                        // Do not trigger the job
-                                        continue;
-                                    }
-                                    if (alreadyTriggeredJobs.add(job)) {
-                                        ParameterizedJobMixIn.scheduleBuild2(job, 0, new CauseAction(cause));
-                                        LOGGER.log(Level.FINE,
-                                                "Triggered build for {0} due to PR event on {1}:{2}/{3}",
-                                                new Object[] {
-                                                        job.getFullName(),
-                                                        changedRepository.getHost(),
-                                                        changedRepository.getUserName(),
-                                                        changedRepository.getRepositoryName()
-                                                }
-                                        );
-                                        postStartJob(branchProp, job, postStartParam);
-                                    } else {
-                                        LOGGER.log(Level.FINE, "Skipping already triggered job {0}", new Object[] { job.getFullName() });
-                                    }
-                                    break;
-                                }
-
-                                if (!propFound) {
-                                    LOGGER.log(Level.FINE,
-                                            "Job {0} for {1}:{2}/{3} does not have a branch property of type {4}",
-                                            new Object[] {
-                                                    job.getFullName(),
-                                                    changedRepository.getHost(),
-                                                    changedRepository.getUserName(),
-                                                    changedRepository.getRepositoryName(),
-                                                    getTriggerClass().getSimpleName()
-                                            }
-                                    );
-                                }
-
-                                jobFound = true;
+                    if (trusted || match.branchProp.getTrustedAuthorList().contains(author)) {
+                        trace.record(DecisionTrace.Stage.PERMISSION, job.getFullName(), "trusted author");
+                    } else if (match.requiresPermission()) {
+                        GHPermissionType permission;
+                        try {
+                            permission = permissions.get(job);
+                        } catch (IOException e) {
+                            LOGGER.log(Level.FINE, "Permissions of " + author + " for job " + job.getFullName() +
+                                    " are unknown", e);
+                            if (TriggerBranchProperty.UnavailablePermissionsPolicy.RECHECK.name().equals(
+                                    match.branchProp.getUnavailablePermissionsPolicy())) {
+                                recheckLater(job.getFullName(), match, author, schedule, trace, 1);
+                                trace.record(DecisionTrace.Stage.PERMISSION, job.getFullName(),
+                                        "unknown, re-check scheduled: " + e.getMessage());
+                                break;
                             }
+                            trace.record(DecisionTrace.Stage.PERMISSION, job.getFullName(),
+                                    "unknown, denied: " + e.getMessage());
+                            continue;
                         }
+                        if (!GithubHelper.isAuthorized(permission, match.branchProp.getMinimumPermissions())) {
+                            LOGGER.log(Level.FINE, "User {0} is not authorized for job {1}",
+                                    new Object[] { author, job.getFullName() });
+                            trace.record(DecisionTrace.Stage.PERMISSION, job.getFullName(),
+                                    "denied with " + permission + ", requires " + match.branchProp.getMinimumPermissions());
+                            continue;
+                        }
+                        trace.record(DecisionTrace.Stage.PERMISSION, job.getFullName(), "authorized with " + permission);
+                    } else {
+                        trace.record(DecisionTrace.Stage.PERMISSION, job.getFullName(), "not required");
+                    }
+                    if (schedule.schedule(trace, job, match, deadlineNanos)) {
+                        break;
                     }
                 }
             }
-            if (!jobFound) {
-                LOGGER.log(Level.FINE, "PR event on {0}:{1}/{2} did not match any job",
-                        new Object[] {
-                                changedRepository.getHost(), changedRepository.getUserName(),
-                                changedRepository.getRepositoryName()
+        } finally {
+            trace.finish();
+        }
+    }
+
+    /**
+     * Checks again the permissions of an author that could not be retrieved in time, and starts the job if they
+     * allow it. The check runs after the open period of the circuit breakers, off the webhook threads.
+     */
+    private void recheckLater(String jobName, TriggerMatch<T> match, String author, EventSchedule schedule,
+                              DecisionTrace eventTrace, int attempt) {
+        Timer.get().schedule(() -> GitHubRequests.EXECUTOR.execute(
+                () -> recheck(jobName, match, author, schedule, eventTrace, attempt)),
+                GitHubCircuitBreaker.OPEN_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void recheck(String jobName, TriggerMatch<T> match, String author, EventSchedule schedule,
+                         DecisionTrace eventTrace, int attempt) {
+        Job<?, ?> job = Jenkins.get().getItemByFullName(jobName, Job.class);
+        if (job == null) {
+            return;
+        }
+        GHPermissionType permission;
+        try {
+            permission = GithubHelper.getPermission(job, author);
+        } catch (IOException | IllegalArgumentException e) {
+            if (attempt < RECHECK_ATTEMPTS) {
+                LOGGER.log(Level.FINE, "Permissions of " + author + " for job " + jobName + " are still unknown", e);
+                recheckLater(jobName, match, author, schedule, eventTrace, attempt + 1);
+            } else {
+                LOGGER.log(Level.INFO, "Dropped trigger of {0} by {1}, permissions still unknown after {2} re-checks",
+                        new Object[] { jobName, author, attempt });
+                DecisionTrace trace = DecisionTrace.startRecheck(eventTrace);
+                trace.reject(DecisionTrace.Stage.PERMISSION, "unknown after " + attempt + " re-checks, denied");
+            }
+            return;
+        }
+        DecisionTrace trace = DecisionTrace.startRecheck(eventTrace);
+        try {
+            if (!GithubHelper.isAuthorized(permission, match.branchProp.getMinimumPermissions())) {
+                LOGGER.log(Level.FINE, "User {0} is not authorized for job {1}", new Object[] { author, jobName });
+                trace.record(DecisionTrace.Stage.PERMISSION, jobName,
+                        "denied with " + permission + ", requires " + match.branchProp.getMinimumPermissions());
+                return;
+            }
+            trace.record(DecisionTrace.Stage.PERMISSION, jobName, "authorized with " + permission + " on re-check");
+            // The load is measured again, the event was handled a while ago
+            schedule.resetAdmission();
+            schedule.schedule(trace, job, match, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MILLIS));
+        } finally {
+            trace.finish();
+        }
+    }
+
+    private void postThrottled(Map<Job<?, ?>, List<TriggerMatch<T>>> matches, U postStartParam) {
+        Map.Entry<Job<?, ?>, List<TriggerMatch<T>>> first = matches.entrySet().iterator().next();
+        postThrottled(first.getValue().get(0).branchProp, first.getKey(), postStartParam);
+    }
+
+    /**
+     * Finds the jobs for a pull request along with the trigger properties that want to start them.
+     * @param trace the decision trace of the event
+     * @param changedRepository the repository of the event
+     * @param pullRequestId the pull request number
+     * @param getCauseFunction the function computing the cause, or null if a property does not trigger
+     * @return the matches for each job in order of discovery, or null if no job exists for the pull request
+     */
+    private Map<Job<?, ?>, List<TriggerMatch<T>>> findMatches(DecisionTrace trace,
+                                                              GitHubRepositoryName changedRepository,
+                                                              int pullRequestId,
+                                                              BiFunction<Job<?, ?>, T, Cause> getCauseFunction) {
+        Map<Job<?, ?>, List<TriggerMatch<T>>> matches = new LinkedHashMap<>();
+        Collection<Job<?, ?>> indexedJobs = TriggerIndex.get().getJobs(
+                changedRepository.getUserName(), changedRepository.getRepositoryName(), pullRequestId);
+        if (indexedJobs != null) {
+            String key = TriggerIndex.key(changedRepository.getUserName(), changedRepository.getRepositoryName(),
+                    pullRequestId);
+            for (Job<?, ?> job : indexedJobs) {
+                if (key.equals(TriggerIndex.key(job))) {
+                    trace.record(DecisionTrace.Stage.PR_MATCH, job.getFullName(), "indexed");
+                    List<TriggerMatch<T>> jobMatches = findMatches(trace, changedRepository, job, getCauseFunction);
+                    if (!jobMatches.isEmpty()) {
+                        matches.put(job, jobMatches);
+                    }
+                } else {
+                    LOGGER.log(Level.FINE, "Indexed job {0} no longer matches PR {1}",
+                            new Object[] { job.getFullName(), key });
+                }
+            }
+            return indexedJobs.isEmpty() ? null : matches;
+        }
+
+        LOGGER.log(Level.FINE, "Trigger index is not ready, scanning all jobs");
+        boolean jobFound = false;
+        for (final SCMSourceOwner owner : SCMSourceOwners.all()) {
+            for (SCMSource source : owner.getSCMSources()) {
+                if (!(source instanceof GitHubSCMSource gitHubSCMSource)) {
+                    continue;
+                }
+                if (gitHubSCMSource.getRepoOwner().equalsIgnoreCase(changedRepository.getUserName()) &&
+                        gitHubSCMSource.getRepository().equalsIgnoreCase(changedRepository.getRepositoryName())) {
+                    OrganizationFolder orgFolder = owner instanceof OrganizationFolder ? (OrganizationFolder) owner : null;
+                    for (Job<?, ?> job : owner.getAllJobs()) {
+                        if (orgFolder != null) {
+                            if (SCMSource.SourceByItem.findSource(job) == source) {
+                                LOGGER.log(Level.FINE,
+                                        "SCM owner is an organization folder and SCM source for job {0} matches",
+                                        job.getFullName());
+                            } else {
+                                continue;
+                            }
                         }
-                );
+                        if (SCMHead.HeadByItem.findHead(job) instanceof PullRequestSCMHead prHead &&
+                                prHead.getNumber() == pullRequestId) {
+                            jobFound = true;
+                            if (matches.containsKey(job)) {
+                                LOGGER.log(Level.FINE, "Skipping already triggered job {0}", new Object[] { job.getFullName() });
+                                trace.record(DecisionTrace.Stage.SCHEDULE, job.getFullName(), "deduplicated");
+                                continue;
+                            }
+                            trace.record(DecisionTrace.Stage.PR_MATCH, job.getFullName(), "scanned");
+                            List<TriggerMatch<T>> jobMatches = findMatches(trace, changedRepository, job, getCauseFunction);
+                            if (!jobMatches.isEmpty()) {
+                                matches.put(job, jobMatches);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return jobFound ? matches : null;
+    }
+
+    private List<TriggerMatch<T>> findMatches(DecisionTrace trace, GitHubRepositoryName changedRepository,
+                                              Job<?, ?> job, BiFunction<Job<?, ?>, T, Cause> getCauseFunction) {
+        boolean propFound = false;
+        List<TriggerMatch<T>> jobMatches = new ArrayList<>(1);
+        for (BranchProperty prop : ((MultiBranchProject) job.getParent()).getProjectFactory().
+                getBranch(job).getProperties()) {
+            if (!(getTriggerClass().isAssignableFrom(prop.getClass()))) {
+                continue;
+            }
+            T branchProp = getTriggerClass().cast(prop);
+            propFound = true;
+            trace.record(DecisionTrace.Stage.PROPERTY, job.getFullName(), "found");
+            Cause cause = getCauseFunction.apply(job, branchProp);
+            if (cause == null) {
+                // Do not trigger the job
+                trace.record(DecisionTrace.Stage.PATTERN, job.getFullName(), "no match");
+                continue;
+            }
+            trace.record(DecisionTrace.Stage.PATTERN, job.getFullName(), "matched");
+            jobMatches.add(new TriggerMatch<>(branchProp, cause));
+        }
+
+        if (!propFound) {
+            trace.record(DecisionTrace.Stage.PROPERTY, job.getFullName(), "missing");
+            LOGGER.log(Level.FINE,
+                    "Job {0} for {1}:{2}/{3} does not have a branch property of type {4}",
+                    new Object[] {
+                            job.getFullName(),
+                            changedRepository.getHost(),
+                            changedRepository.getUserName(),
+                            changedRepository.getRepositoryName(),
+                            getTriggerClass().getSimpleName()
+                    }
+            );
+        }
+        return jobMatches;
+    }
+
+    /**
+     * The scheduling state shared by all the builds triggered by one event, including those started after
+     * re-checking permissions: the head commit, the pull request limit, the load and the fan-out.
+     */
+    private final class EventSchedule {
+        private final TriggerGlobalConfiguration config;
+        private final GitHubRepositoryName changedRepository;
+        private final int pullRequestId;
+        private final String pullRequestKey;
+        private final FanOutSchedule fanOut;
+        private final U postStartParam;
+        /**
+         * Events without the head commit, such as comments, look it up once for all the jobs needing it.
+         */
+        private String headSha;
+        /**
+         * The pull request limit is only consumed once an authorized trigger is about to be scheduled, once per
+         * event.
+         */
+        private Boolean pullRequestAllowed;
+        /**
+         * The load is only measured once a build is about to be scheduled.
+         */
+        private AdmissionControl admission;
+        private boolean rejectionReported;
+
+        private EventSchedule(TriggerGlobalConfiguration config, GitHubRepositoryName changedRepository,
+                              int pullRequestId, String pullRequestKey, String headSha, FanOutSchedule fanOut,
+                              U postStartParam) {
+            this.config = config;
+            this.changedRepository = changedRepository;
+            this.pullRequestId = pullRequestId;
+            this.pullRequestKey = pullRequestKey;
+            this.headSha = headSha;
+            this.fanOut = fanOut;
+            this.postStartParam = postStartParam;
+        }
+
+        private synchronized void resetAdmission() {
+            admission = null;
+        }
+
+        /**
+         * Schedules the build of an authorized trigger, unless its revision is already built, the controller is
+         * overloaded or the pull request reached its limit.
+         * @param trace the decision trace
+         * @param job the job
+         * @param match the trigger
+         * @param deadlineNanos the {@link System#nanoTime()} after which the head commit is treated as unknown
+         * @return true if the job is decided, false if its revision is already built and other triggers of the job
+         * may still be tried
+         */
+        private synchronized boolean schedule(DecisionTrace trace, Job<?, ?> job, TriggerMatch<T> match,
+                                              long deadlineNanos) {
+            if (match.branchProp.isSkipBuildingRevision() && foldIntoQueued(job, match.cause)) {
+                // The queued build picks the current revision when it starts, only add the cause to it
+                LOGGER.log(Level.FINE, "Folded trigger of {0} into its queued build", job.getFullName());
+                trace.record(DecisionTrace.Stage.REVISION, job.getFullName(), "folded into queued build");
+                return true;
+            }
+            if (headSha == null &&
+                    (match.branchProp.isSkipBuildingRevision() || match.branchProp.isSkipBuiltRevision())) {
+                headSha = getHeadSha(job, pullRequestKey, pullRequestId, deadlineNanos);
+            }
+            String duplicate = BuiltRevisions.findDuplicate(job, headSha,
+                    match.branchProp.isSkipBuildingRevision(), match.branchProp.isSkipBuiltRevision());
+            if (duplicate != null) {
+                LOGGER.log(Level.FINE, "Skipped trigger of {0}, revision {1}",
+                        new Object[] { job.getFullName(), duplicate });
+                trace.record(DecisionTrace.Stage.REVISION, job.getFullName(), duplicate);
+                return false;
             }
+            if (admission == null) {
+                admission = AdmissionControl.evaluate(config);
+            }
+            int deferral = 0;
+            if (admission.isOverloaded()) {
+                AdmissionControl.Action action = AdmissionControl.Action.parse(config.getAdmissionAction());
+                if (action == AdmissionControl.Action.REJECT) {
+                    LOGGER.log(Level.INFO, "Rejected trigger of {0}, controller overloaded with {1}",
+                            new Object[] { job.getFullName(), admission });
+                    trace.record(DecisionTrace.Stage.ADMISSION, job.getFullName(), "rejected, " + admission);
+                    if (!rejectionReported) {
+                        postThrottled(match.branchProp, job, postStartParam);
+                        rejectionReported = true;
+                    }
+                    return true;
+                }
+                if (action == AdmissionControl.Action.MERGE && foldIntoQueued(job, match.cause)) {
+                    trace.record(DecisionTrace.Stage.ADMISSION, job.getFullName(),
+                            "merged into queued build, " + admission);
+                    postStartJob(match.branchProp, job, postStartParam);
+                    return true;
+                }
+                deferral = config.getAdmissionDeferSeconds();
+                trace.record(DecisionTrace.Stage.ADMISSION, job.getFullName(),
+                        "deferred by " + deferral + " s, " + admission);
+            }
+            if (pullRequestAllowed == null) {
+                pullRequestAllowed = TriggerThrottle.PULL_REQUESTS.tryAcquire(pullRequestKey,
+                        config.getPullRequestTriggerLimit(),
+                        TimeUnit.MINUTES.toMillis(config.getTriggerLimitPeriodMinutes()));
+                if (!pullRequestAllowed) {
+                    LOGGER.log(Level.INFO, "Throttled PR event on {0}, too many triggers for this pull request",
+                            pullRequestKey);
+                    postThrottled(match.branchProp, job, postStartParam);
+                }
+            }
+            if (!pullRequestAllowed) {
+                trace.record(DecisionTrace.Stage.THROTTLE, job.getFullName(), "pull request limit reached");
+                return true;
+            }
+            int quietPeriod = deferral + fanOut.nextQuietPeriod();
+            if (ParameterizedJobMixIn.scheduleBuild2(job, quietPeriod, new CauseAction(match.cause)) == null) {
+                trace.record(DecisionTrace.Stage.SCHEDULE, job.getFullName(), "not buildable");
+                return true;
+            }
+            trace.record(DecisionTrace.Stage.SCHEDULE, job.getFullName(),
+                    quietPeriod == 0 ? "scheduled" : "scheduled in " + quietPeriod + " s");
+            LOGGER.log(Level.FINE,
+                    "Triggered build for {0} due to PR event on {1}:{2}/{3}",
+                    new Object[] {
+                            job.getFullName(),
+                            changedRepository.getHost(),
+                            changedRepository.getUserName(),
+                            changedRepository.getRepositoryName()
+                    }
+            );
+            postStartJob(match.branchProp, job, postStartParam);
+            return true;
+        }
+    }
+
+    /**
+     * A trigger property wanting to start a job, pending the permission check of the author.
+     */
+    private static final class TriggerMatch<T extends TriggerBranchProperty> {
+        private final T branchProp;
+        private final Cause cause;
+
+        private TriggerMatch(T branchProp, Cause cause) {
+            this.branchProp = branchProp;
+            this.cause = cause;
+        }
+
+        private boolean requiresPermission() {
+            return !GHPermissionType.NONE.name().equals(branchProp.getMinimumPermissions());
+        }
+
+        private boolean requiresLookup(String author, boolean trusted) {
+            return requiresPermission() && !trusted && !branchProp.getTrustedAuthorList().contains(author) &&
+                    !branchProp.getDeniedAuthorList().contains(author);
         }
     }
 }
@@ -0,0 +1,56 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.model.Job;
+import hudson.model.Result;
+import hudson.model.Run;
+import jenkins.branch.MultiBranchProject;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMRevisionAction;
+import jenkins.scm.api.SCMSource;
+import org.jenkinsci.plugins.github_branch_source.PullRequestSCMRevision;
+
+/**
+ * Finds the builds of a pull request job that already cover the revision a trigger would build.
+ */
+final class BuiltRevisions {
+    private BuiltRevisions() {
+    }
+
+    /**
+     * Looks for a running build, or a successful last completed build, of the current revision of a job.
+     * @param job the pull request job
+     * @param headSha the head commit of the pull request from the event, or null if the event does not carry it
+     * @param building whether running builds are looked for
+     * @param built whether the last completed build is looked for
+     * @return a description of the build covering the revision, or null if the trigger is not redundant
+     */
+    static String findDuplicate(Job<?, ?> job, String headSha, boolean building, boolean built) {
+        if (!building && !built || !(job.getParent() instanceof MultiBranchProject<?, ?> project)) {
+            return null;
+        }
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        SCMRevision revision = ((MultiBranchProject) project).getProjectFactory().getRevision(job);
+        SCMSource source = SCMSource.SourceByItem.findSource(job);
+        if (revision == null || source == null) {
+            return null;
+        }
+        if (headSha != null && revision instanceof PullRequestSCMRevision prRevision &&
+                !headSha.equalsIgnoreCase(prRevision.getPullHash())) {
+            // The pull request moved on since the last indexing, the next build is not redundant
+            return null;
+        }
+        for (Run<?, ?> run = job.getLastBuild(); run != null; run = run.getPreviousBuild()) {
+            boolean running = run.isBuilding();
+            if (running ? building : built && run.getResult() == Result.SUCCESS) {
+                if (revision.equals(SCMRevisionAction.getRevision(source, run))) {
+                    return (running ? "already building in " : "already built in ") + run.getDisplayName();
+                }
+            }
+            if (!running) {
+                // Only the running builds and the last completed build are relevant
+                break;
+            }
+        }
+        return null;
+    }
+}
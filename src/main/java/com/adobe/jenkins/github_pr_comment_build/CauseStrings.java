@@ -0,0 +1,24 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Shares the URLs and logins repeated across the causes of many retained builds.
+ */
+final class CauseStrings {
+    private static final Interner<String> INTERNER = Interners.newWeakInterner();
+
+    private CauseStrings() {
+        // private
+    }
+
+    /**
+     * Returns a shared instance equal to the given string.
+     * @param value the string, may be null
+     * @return the shared instance, or null
+     */
+    static String intern(String value) {
+        return value == null ? null : INTERNER.intern(value);
+    }
+}
@@ -0,0 +1,131 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import com.cloudbees.jenkins.GitHubRepositoryName;
+import hudson.Extension;
+import hudson.model.Job;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.github.GHEvent;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.collect.Sets.immutableEnumSet;
+import static org.kohsuke.github.GHEvent.CHECK_RUN;
+import static org.kohsuke.github.GHEvent.CHECK_SUITE;
+
+/**
+ * This subscriber manages {@link GHEvent} CHECK_RUN and CHECK_SUITE re-run requests.
+ */
+@Extension
+public class CheckRunGHEventSubscriber extends BasePRGHEventSubscriber<TriggerPRCheckRunBranchProperty, Void> {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CheckRunGHEventSubscriber.class.getName());
+    /**
+     * String representing the re-run action on a check run or check suite.
+     */
+    private static final String ACTION_REREQUESTED = "rerequested";
+
+    @Override
+    protected Class<TriggerPRCheckRunBranchProperty> getTriggerClass() {
+        return TriggerPRCheckRunBranchProperty.class;
+    }
+
+    @Override
+    protected Set<GHEvent> events() {
+        return immutableEnumSet(CHECK_RUN, CHECK_SUITE);
+    }
+
+    /**
+     * Checks whether a check run was produced by a job, based on its details URL pointing to the job or its builds.
+     * @param job the job
+     * @param detailsUrl the details URL of the check run
+     * @return if the check run belongs to the job
+     */
+    private static boolean isProducedBy(Job<?, ?> job, String detailsUrl) {
+        try {
+            String path = new URI(detailsUrl).getRawPath();
+            if (path == null) {
+                return false;
+            }
+            String rootUrl = Jenkins.get().getRootUrl();
+            if (rootUrl == null) {
+                return path.contains("/" + job.getUrl());
+            }
+            return path.startsWith(new URI(rootUrl).getRawPath() + job.getUrl());
+        } catch (URISyntaxException e) {
+            LOGGER.log(Level.FINE, "Malformed check run details URL " + detailsUrl, e);
+            return false;
+        }
+    }
+
+    /**
+     * Handles re-run requests of checks of pull requests.
+     * @param event only CHECK_RUN and CHECK_SUITE events
+     * @param payload payload of gh-event. Never blank
+     */
+    @Override
+    protected void onEvent(GHEvent event, String payload) {
+        JSONObject json = JSONObject.fromObject(payload);
+
+        // Make sure the action is a re-run request
+        String action = json.optString("action");
+        if (!ACTION_REREQUESTED.equals(action)) {
+            LOGGER.log(Level.FINER, "Check action is not rerequested ({0}), ignoring", action);
+            return;
+        }
+
+        DecisionTrace trace = DecisionTrace.start(event);
+        // A check suite re-run applies to all the jobs of the pull request, a check run only to the job producing it
+        final boolean suite = event == CHECK_SUITE;
+        JSONObject check = json.getJSONObject(suite ? "check_suite" : "check_run");
+        final String author = json.getJSONObject("sender").getString("login");
+        final String checkName = suite ? "check suite" : check.optString("name");
+        final String detailsUrl = suite ? null : check.optString("details_url", null);
+        final String headSha = check.optString("head_sha", null);
+        String repoUrl = getRepoUrl(json);
+        // The API URL of a suite only shows JSON, its head commit is logged and the pull request checks linked instead
+        final String checkUrl = suite ? repoUrl + "/commit/" + headSha : check.optString("html_url");
+        if (!suite && (detailsUrl == null || detailsUrl.isEmpty())) {
+            LOGGER.log(Level.FINE, "Check run {0} has no details URL, ignoring", checkUrl);
+            trace.reject(DecisionTrace.Stage.PRE_FILTER, "check run without details URL");
+            return;
+        }
+
+        // GitHub does not list the pull requests from forks, whose checks cannot be matched to their jobs
+        JSONArray pullRequests = check.optJSONArray("pull_requests");
+        if (pullRequests == null || pullRequests.isEmpty()) {
+            LOGGER.log(Level.FINE, "Check {0} is not for a pull request of the repository, ignoring", checkUrl);
+            trace.reject(DecisionTrace.Stage.PRE_FILTER, "no pull request of the repository, such as from a fork");
+            return;
+        }
+
+        final GitHubRepositoryName changedRepository = getChangedRepository(repoUrl);
+        if (changedRepository == null) {
+            trace.reject(DecisionTrace.Stage.REPO_MATCH, "malformed repository URL " + repoUrl);
+            return;
+        }
+
+        for (int i = 0; i < pullRequests.size(); i++) {
+            int pullRequestId = pullRequests.getJSONObject(i).getInt("number");
+            final String causeUrl = suite ? repoUrl + "/pull/" + pullRequestId + "/checks" : checkUrl;
+            LOGGER.log(Level.FINE, "Received re-run request of {0} on PR {1} for {2}",
+                    new Object[] { checkName, pullRequestId, repoUrl });
+            checkAndRunJobs(i == 0 ? trace : DecisionTrace.start(event), changedRepository, pullRequestId, author,
+                    headSha, null, (job, branchProp) -> {
+                if (detailsUrl != null && !isProducedBy(job, detailsUrl)) {
+                    LOGGER.log(Level.FINER, "Check run {0} was not produced by {1}",
+                            new Object[] { checkUrl, job.getFullName() });
+                    return null;
+                }
+                return new GitHubPullRequestCheckRunCause(author, causeUrl, checkName);
+            });
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.Util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded record of the recent comments that matched trigger patterns, used to tell whether an edit changes the
+ * trigger outcome of a comment.
+ */
+final class CommentMatchHistory {
+    private static final int MAX_COMMENTS = 4096;
+
+    private static final Map<Long, Entry> COMMENTS = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > MAX_COMMENTS;
+        }
+    };
+
+    private CommentMatchHistory() {
+        // private
+    }
+
+    /**
+     * Hashes a comment body.
+     * @param body the comment body
+     * @return the hash
+     */
+    static String hash(String body) {
+        return Util.getDigestOf(body);
+    }
+
+    /**
+     * Looks up a comment.
+     * @param commentId the comment id
+     * @return the recorded outcome, or null if the comment did not match recently or was forgotten
+     */
+    static Entry get(long commentId) {
+        synchronized (COMMENTS) {
+            return COMMENTS.get(commentId);
+        }
+    }
+
+    /**
+     * Records the outcome of a comment, forgetting it if it matched no pattern.
+     * @param commentId the comment id
+     * @param bodyHash the hash of the comment body
+     * @param matchedPatterns the trigger patterns matched by the comment
+     */
+    static void record(long commentId, String bodyHash, Set<String> matchedPatterns) {
+        synchronized (COMMENTS) {
+            if (matchedPatterns.isEmpty()) {
+                COMMENTS.remove(commentId);
+            } else {
+                COMMENTS.put(commentId, new Entry(bodyHash, Collections.unmodifiableSet(matchedPatterns)));
+            }
+        }
+    }
+
+    /**
+     * The outcome of a comment.
+     */
+    static final class Entry {
+        private final String bodyHash;
+        private final Set<String> matchedPatterns;
+
+        private Entry(String bodyHash, Set<String> matchedPatterns) {
+            this.bodyHash = bodyHash;
+            this.matchedPatterns = matchedPatterns;
+        }
+
+        String getBodyHash() {
+            return bodyHash;
+        }
+
+        Set<String> getMatchedPatterns() {
+            return matchedPatterns;
+        }
+    }
+}
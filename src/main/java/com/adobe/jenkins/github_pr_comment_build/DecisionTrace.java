@@ -0,0 +1,213 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import jenkins.util.SystemProperties;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.github.GHEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the decisions taken at each stage while handling one GitHub event, along with the time spent on each of
+ * them. Finished traces are kept in a fixed-size ring buffer of recent events.
+ */
+public final class DecisionTrace {
+    /**
+     * Number of recent events kept.
+     */
+    private static final int CAPACITY = Math.max(1,
+            SystemProperties.getInteger(DecisionTrace.class.getName() + ".capacity", 256));
+    private static final AtomicReferenceArray<DecisionTrace> RECENT = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLong COUNT = new AtomicLong();
+
+    /**
+     * The stages of event handling.
+     */
+    public enum Stage {
+        PRE_FILTER,
+        REPO_MATCH,
+        PR_MATCH,
+        PROPERTY,
+        PATTERN,
+        THROTTLE,
+        PERMISSION,
+        REVISION,
+        ADMISSION,
+        SCHEDULE
+    }
+
+    private final long timestamp = System.currentTimeMillis();
+    private final String event;
+    private final List<Decision> decisions = new ArrayList<>();
+    private String repository;
+    private int pullRequestId;
+    private String author;
+    private long lastNanos = System.nanoTime();
+
+    private DecisionTrace(String event) {
+        this.event = event;
+    }
+
+    /**
+     * Starts the trace of an event.
+     * @param event the GitHub event
+     * @return the trace
+     */
+    static DecisionTrace start(GHEvent event) {
+        return new DecisionTrace(event.name());
+    }
+
+    /**
+     * Starts the trace of a later re-check of an event, whose own trace is already finished.
+     * @param trace the trace of the event
+     * @return the trace of the re-check
+     */
+    static DecisionTrace startRecheck(DecisionTrace trace) {
+        DecisionTrace recheck = new DecisionTrace(trace.event + " (re-check)");
+        recheck.setPullRequest(trace.repository, trace.pullRequestId, trace.author);
+        return recheck;
+    }
+
+    /**
+     * Lists the recently finished traces.
+     * @return the traces, most recent first
+     */
+    static List<DecisionTrace> getRecent() {
+        long count = COUNT.get();
+        List<DecisionTrace> traces = new ArrayList<>(CAPACITY);
+        for (long i = count - 1; i >= 0 && i >= count - CAPACITY; i--) {
+            DecisionTrace trace = RECENT.get((int) (i % CAPACITY));
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * Identifies the pull request the event is about.
+     * @param repository the repository
+     * @param pullRequestId the pull request number
+     * @param author the GitHub login of the author of the event
+     */
+    void setPullRequest(String repository, int pullRequestId, String author) {
+        this.repository = repository;
+        this.pullRequestId = pullRequestId;
+        this.author = author;
+    }
+
+    /**
+     * Records a decision, the time since the previous decision being accounted to it.
+     * @param stage the stage
+     * @param job the full name of the job the decision applies to, or null for the whole event
+     * @param outcome the outcome of the stage
+     */
+    void record(Stage stage, String job, String outcome) {
+        long now = System.nanoTime();
+        decisions.add(new Decision(stage, job, outcome, now - lastNanos));
+        lastNanos = now;
+    }
+
+    /**
+     * Records a decision ending the handling of the event, and finishes the trace.
+     * @param stage the stage
+     * @param outcome the outcome of the stage
+     */
+    void reject(Stage stage, String outcome) {
+        record(stage, null, outcome);
+        finish();
+    }
+
+    /**
+     * Publishes the trace to the recent events. It must not be modified afterwards.
+     */
+    void finish() {
+        RECENT.set((int) (COUNT.getAndIncrement() % CAPACITY), this);
+    }
+
+    public Date getTime() {
+        return new Date(timestamp);
+    }
+
+    public String getEvent() {
+        return event;
+    }
+
+    public String getRepository() {
+        return repository;
+    }
+
+    public int getPullRequestId() {
+        return pullRequestId;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public List<Decision> getDecisions() {
+        return Collections.unmodifiableList(decisions);
+    }
+
+    /**
+     * Converts the trace to JSON.
+     * @return the JSON representation
+     */
+    JSONObject toJSON() {
+        JSONArray decisionsJson = new JSONArray();
+        for (Decision decision : decisions) {
+            JSONObject decisionJson = new JSONObject();
+            decisionJson.put("stage", decision.stage.name());
+            decisionJson.put("job", decision.job);
+            decisionJson.put("outcome", decision.outcome);
+            decisionJson.put("nanos", decision.nanos);
+            decisionsJson.add(decisionJson);
+        }
+        JSONObject json = new JSONObject();
+        json.put("timestamp", timestamp);
+        json.put("event", event);
+        json.put("repository", repository);
+        json.put("pullRequestId", pullRequestId);
+        json.put("author", author);
+        json.put("decisions", decisionsJson);
+        return json;
+    }
+
+    /**
+     * The decision taken at a stage.
+     */
+    public static final class Decision {
+        private final Stage stage;
+        private final String job;
+        private final String outcome;
+        private final long nanos;
+
+        private Decision(Stage stage, String job, String outcome, long nanos) {
+            this.stage = stage;
+            this.job = job;
+            this.outcome = outcome;
+            this.nanos = nanos;
+        }
+
+        public Stage getStage() {
+            return stage;
+        }
+
+        public String getJob() {
+            return job;
+        }
+
+        public String getOutcome() {
+            return outcome;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.model.Job;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToLongFunction;
+
+/**
+ * Spreads the builds triggered by a single event over a window. The first batch of builds starts right away, the
+ * following batches start at evenly spaced times within the window, each build with a random quiet period before
+ * its batch time so that builds of a batch do not all hit agents and GitHub at the same second.
+ */
+final class FanOutSchedule {
+    /**
+     * Orders jobs by estimated duration, the jobs with unknown duration last, so that short builds give feedback first.
+     * @param jobs the jobs
+     */
+    static void sortShortestFirst(List<Job<?, ?>> jobs) {
+        sortShortestFirst(jobs, Job::getEstimatedDuration);
+    }
+
+    /**
+     * Orders items by estimated duration, negative estimates standing for unknown durations, which come last. Each
+     * duration is estimated once, estimating the duration of a job scanning its recent builds.
+     * @param items the items
+     * @param estimate the estimated duration of an item
+     * @param <J> the type of the items
+     */
+    static <J> void sortShortestFirst(List<J> items, ToLongFunction<? super J> estimate) {
+        Map<J, Long> estimates = new IdentityHashMap<>(items.size());
+        for (J item : items) {
+            long duration = estimate.applyAsLong(item);
+            estimates.put(item, duration < 0 ? Long.MAX_VALUE : duration);
+        }
+        items.sort(Comparator.comparingLong(estimates::get));
+    }
+
+    private final int concurrency;
+    private final int batches;
+    private final int windowSeconds;
+    private int scheduled;
+
+    /**
+     * Constructor.
+     * @param jobs the maximum number of builds the event may trigger
+     * @param concurrency the number of builds per batch, 0 for a single batch
+     * @param windowSeconds the window over which batches are spread
+     */
+    FanOutSchedule(int jobs, int concurrency, int windowSeconds) {
+        this.concurrency = concurrency;
+        this.batches = concurrency <= 0 ? 1 : (jobs + concurrency - 1) / concurrency;
+        this.windowSeconds = windowSeconds;
+    }
+
+    /**
+     * Whether the event triggers more builds than started at once.
+     * @return if builds are spread
+     */
+    boolean isSpread() {
+        return batches > 1;
+    }
+
+    /**
+     * Computes the quiet period of the next build, which is then accounted as scheduled.
+     * @return the quiet period in seconds
+     */
+    int nextQuietPeriod() {
+        int batch = concurrency <= 0 ? 0 : scheduled / concurrency;
+        scheduled++;
+        if (batch == 0 || batches <= 1) {
+            return 0;
+        }
+        int batchTime = (int) ((long) windowSeconds * batch / (batches - 1));
+        int slot = Math.max(1, windowSeconds / (batches - 1));
+        return Math.max(1, batchTime - ThreadLocalRandom.current().nextInt(slot / 2 + 1));
+    }
+}
@@ -0,0 +1,200 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import jenkins.util.SystemProperties;
+import org.kohsuke.github.HttpException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Circuit breakers guarding the GitHub API calls made while handling events, one per API endpoint and kind of
+ * request. After consecutive failures or slow calls, a breaker opens and calls fail immediately instead of waiting
+ * for the HTTP timeout. Once the open period elapses, a single trial call is let through to probe GitHub again.
+ * Only server errors, timeouts, connection errors and slow calls are failures: client errors such as a missing
+ * repository or a refused permission concern a single request, and leave the breaker as it is.
+ */
+final class GitHubCircuitBreaker {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(GitHubCircuitBreaker.class.getName());
+    /**
+     * Number of consecutive failed or slow calls opening a breaker.
+     */
+    private static final int FAILURE_THRESHOLD = Math.max(1,
+            SystemProperties.getInteger(GitHubCircuitBreaker.class.getName() + ".failures", 5));
+    /**
+     * Duration of a call counted as a failure even if it succeeds.
+     */
+    private static final long SLOW_CALL_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            SystemProperties.getLong(GitHubCircuitBreaker.class.getName() + ".slowCallMillis", 10_000L));
+    /**
+     * How long an open breaker fails calls before letting a trial call through.
+     */
+    static final long OPEN_MILLIS = Math.max(1L,
+            SystemProperties.getLong(GitHubCircuitBreaker.class.getName() + ".openMillis", 30_000L));
+
+    private static final Map<String, GitHubCircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private int failures;
+    private long openedAt;
+    private boolean open;
+    private boolean trial;
+
+    private GitHubCircuitBreaker() {
+    }
+
+    /**
+     * A GitHub API call.
+     * @param <V> the result type
+     */
+    @FunctionalInterface
+    interface Call<V> {
+        V call() throws IOException;
+    }
+
+    /**
+     * Thrown instead of calling GitHub while the breaker of an endpoint is open.
+     */
+    static final class OpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private OpenException(String endpoint) {
+            super("GitHub requests to " + endpoint + " are suspended after repeated failures");
+        }
+    }
+
+    /**
+     * Makes a call through the breaker of an endpoint.
+     * @param apiUri the GitHub API URI
+     * @param request the kind of request, such as "permission"
+     * @param call the call
+     * @param <V> the result type
+     * @return the result of the call
+     * @throws OpenException if the breaker is open
+     * @throws IOException if the call failed
+     */
+    static <V> V call(String apiUri, String request, Call<V> call) throws IOException {
+        String endpoint = (apiUri + " " + request).toLowerCase(Locale.ROOT);
+        GitHubCircuitBreaker breaker = BREAKERS.computeIfAbsent(endpoint, k -> new GitHubCircuitBreaker());
+        Permit permit = breaker.tryEnter();
+        if (permit == Permit.REFUSED) {
+            throw new OpenException(endpoint);
+        }
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        boolean counted = true;
+        try {
+            V result = call.call();
+            succeeded = System.nanoTime() - start < SLOW_CALL_NANOS;
+            return result;
+        } catch (IOException e) {
+            counted = !isClientError(e) || System.nanoTime() - start >= SLOW_CALL_NANOS;
+            throw e;
+        } finally {
+            if (counted) {
+                breaker.exit(endpoint, permit, succeeded);
+            } else {
+                breaker.release(permit);
+            }
+        }
+    }
+
+    /**
+     * Checks whether GitHub answered a call with a 4xx status, such as a missing repository or rate limiting.
+     * @param e the failure of the call
+     * @return true for client errors, false for server errors and network failures
+     */
+    private static boolean isClientError(IOException e) {
+        if (e instanceof FileNotFoundException) {
+            // Including GHFileNotFoundException, thrown on 404 and 410
+            return true;
+        }
+        if (e instanceof HttpException http) {
+            int code = http.getResponseCode();
+            return code >= 400 && code < 500;
+        }
+        return false;
+    }
+
+    /**
+     * Lists the endpoints whose breaker is open.
+     * @return the time each breaker opened at, in epoch milliseconds, by endpoint
+     */
+    static Map<String, Long> getOpenEndpoints() {
+        Map<String, Long> result = new TreeMap<>();
+        BREAKERS.forEach((endpoint, breaker) -> {
+            synchronized (breaker) {
+                if (breaker.open) {
+                    result.put(endpoint, breaker.openedAt);
+                }
+            }
+        });
+        return result;
+    }
+
+    private synchronized Permit tryEnter() {
+        if (!open) {
+            return Permit.CALL;
+        }
+        if (trial || System.currentTimeMillis() - openedAt < OPEN_MILLIS) {
+            return Permit.REFUSED;
+        }
+        trial = true;
+        return Permit.TRIAL;
+    }
+
+    private synchronized void exit(String endpoint, Permit permit, boolean succeeded) {
+        if (permit == Permit.TRIAL) {
+            trial = false;
+            if (succeeded) {
+                LOGGER.log(Level.INFO, "Resuming GitHub requests to {0}", endpoint);
+                failures = 0;
+                open = false;
+            } else {
+                openedAt = System.currentTimeMillis();
+            }
+        } else if (!open) {
+            // Calls started before the breaker opened are outdated, only the trial call decides to close it
+            if (succeeded) {
+                failures = 0;
+            } else if (++failures >= FAILURE_THRESHOLD) {
+                LOGGER.log(Level.WARNING, "Suspending GitHub requests to {0} for {1} ms after {2} failed or slow calls",
+                        new Object[] { endpoint, OPEN_MILLIS, failures });
+                open = true;
+                openedAt = System.currentTimeMillis();
+            }
+        }
+    }
+
+    private synchronized void release(Permit permit) {
+        if (permit == Permit.TRIAL) {
+            trial = false;
+        }
+    }
+
+    /**
+     * What a call is allowed to do.
+     */
+    private enum Permit {
+        /**
+         * The breaker is open, the call fails immediately.
+         */
+        REFUSED,
+        /**
+         * The breaker is closed, the call counts towards opening it.
+         */
+        CALL,
+        /**
+         * The single trial call of an open breaker, which alone closes or reopens it.
+         */
+        TRIAL
+    }
+}
@@ -0,0 +1,75 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.model.Cause;
+import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.Whitelisted;
+import org.kohsuke.stapler.export.Exported;
+
+import java.io.Serializable;
+
+/**
+ * Cause of a build triggered by re-running a GitHub check of a pull request.
+ */
+public final class GitHubPullRequestCheckRunCause extends Cause implements Serializable {
+    private String checkRunAuthor;
+    private String checkRunUrl;
+    private String checkName;
+    private transient String shortDescription;
+
+    /**
+     * Constructor.
+     * @param checkRunAuthor the author of the re-run request
+     * @param checkRunUrl the URL for the GitHub check
+     * @param checkName the name of the GitHub check
+     */
+    public GitHubPullRequestCheckRunCause(String checkRunAuthor, String checkRunUrl, String checkName) {
+        this.checkRunAuthor = CauseStrings.intern(checkRunAuthor);
+        this.checkRunUrl = CauseStrings.intern(checkRunUrl);
+        this.checkName = CauseStrings.intern(checkName);
+    }
+
+    private Object readResolve() {
+        checkRunAuthor = CauseStrings.intern(checkRunAuthor);
+        checkRunUrl = CauseStrings.intern(checkRunUrl);
+        checkName = CauseStrings.intern(checkName);
+        return this;
+    }
+
+    @Whitelisted
+    @Override
+    public String getShortDescription() {
+        if (shortDescription == null) {
+            shortDescription = "GitHub pull request check \"" + checkName + "\" re-run by " + checkRunAuthor;
+        }
+        return shortDescription;
+    }
+
+    /**
+     * Retrieves the author of the re-run request for this cause.
+     * @return the author of the re-run request
+     */
+    @Whitelisted
+    @Exported(visibility = 3)
+    public String getCheckRunAuthor() {
+        return checkRunAuthor;
+    }
+
+    /**
+     * Retrieves the URL for the GitHub check for this cause.
+     * @return the URL for the GitHub check
+     */
+    @Whitelisted
+    @Exported(visibility = 3)
+    public String getCheckRunUrl() {
+        return checkRunUrl;
+    }
+
+    /**
+     * Retrieves the name of the GitHub check for this cause.
+     * @return the name of the GitHub check
+     */
+    @Whitelisted
+    @Exported(visibility = 3)
+    public String getCheckName() {
+        return checkName;
+    }
+}
@@ -1,18 +1,27 @@
 package com.adobe.jenkins.github_pr_comment_build;
 
+import hudson.Util;
 import hudson.model.Cause;
 import org.jenkinsci.plugins.scriptsecurity.sandbox.whitelists.Whitelisted;
 import org.kohsuke.stapler.export.Exported;
 
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * Created by saville on 10/13/2016.
  */
 public final class GitHubPullRequestCommentCause extends Cause implements Serializable {
-    private final String commentUrl;
-    private final String commentAuthor;
+    private String commentUrl;
+    private String commentAuthor;
     private final String commentBody;
+    /**
+     * SHA-256 hash of the full comment body, only set when the stored body is truncated.
+     */
+    private final String commentBodyHash;
+    private transient String shortDescription;
 
     /**
      * Constructor.
@@ -21,15 +30,53 @@ public final class GitHubPullRequestCommentCause extends Cause implements Serial
      * @param commentBody the body for the GitHub comment
      */
     public GitHubPullRequestCommentCause(String commentUrl, String commentAuthor, String commentBody) {
-        this.commentUrl = commentUrl;
-        this.commentAuthor = commentAuthor;
-        this.commentBody = commentBody;
+        this(commentUrl, commentAuthor, commentBody, 0);
+    }
+
+    /**
+     * Constructor.
+     * @param commentUrl the URL for the GitHub comment
+     * @param commentAuthor the author of the GitHub comment
+     * @param commentBody the body for the GitHub comment
+     * @param maxBodyLength the maximum number of body characters to store, 0 for no limit
+     */
+    public GitHubPullRequestCommentCause(String commentUrl, String commentAuthor, String commentBody,
+                                         int maxBodyLength) {
+        this.commentUrl = CauseStrings.intern(commentUrl);
+        this.commentAuthor = CauseStrings.intern(commentAuthor);
+        if (maxBodyLength > 0 && commentBody != null && commentBody.length() > maxBodyLength) {
+            int end = Character.isHighSurrogate(commentBody.charAt(maxBodyLength - 1)) ? maxBodyLength - 1 : maxBodyLength;
+            this.commentBody = commentBody.substring(0, end);
+            this.commentBodyHash = sha256(commentBody);
+        } else {
+            this.commentBody = commentBody;
+            this.commentBodyHash = null;
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Util.toHexString(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Object readResolve() {
+        commentUrl = CauseStrings.intern(commentUrl);
+        commentAuthor = CauseStrings.intern(commentAuthor);
+        return this;
     }
 
     @Whitelisted
     @Override
     public String getShortDescription() {
-        return String.format("GitHub pull request comment by %s: %s (%s)", commentAuthor, commentBody, commentUrl);
+        if (shortDescription == null) {
+            shortDescription = "GitHub pull request comment by " + commentAuthor + ": " + commentBody +
+                    (isCommentBodyTruncated() ? "…" : "") + " (" + commentUrl + ")";
+        }
+        return shortDescription;
     }
 
     /**
@@ -53,12 +100,34 @@ public final class GitHubPullRequestCommentCause extends Cause implements Serial
     }
 
     /**
-     * Retrieves the body for the GitHub comment for this cause.
+     * Retrieves the body for the GitHub comment for this cause, which may be truncated.
      * @return the body for the GitHub comment
+     * @see #isCommentBodyTruncated()
      */
     @Whitelisted
     @Exported(visibility = 3)
     public String getCommentBody() {
         return commentBody;
     }
+
+    /**
+     * Whether only the beginning of the GitHub comment body is stored in this cause. The full comment may be
+     * retrieved from {@link #getCommentUrl()}.
+     * @return if the comment body is truncated
+     */
+    @Whitelisted
+    @Exported(visibility = 3)
+    public boolean isCommentBodyTruncated() {
+        return commentBodyHash != null;
+    }
+
+    /**
+     * Retrieves the SHA-256 hash of the full GitHub comment body when it is truncated.
+     * @return the hex encoded hash, or null if the comment body is stored in full
+     */
+    @Whitelisted
+    @Exported(visibility = 3)
+    public String getCommentBodyHash() {
+        return commentBodyHash;
+    }
 }
@@ -10,9 +10,10 @@ import java.io.Serializable;
  * Created by Agyaey on 04/04/2023.
  */
 public final class GitHubPullRequestLabelCause extends Cause implements Serializable {
-    private final String labelUrl;
-    private final String labellingAuthor;
-    private final String label;
+    private String labelUrl;
+    private String labellingAuthor;
+    private String label;
+    private transient String shortDescription;
 
     /**
      * Constructor.
@@ -22,15 +23,25 @@ public final class GitHubPullRequestLabelCause extends Cause implements Serializ
      * @param label           the body for the GitHub Label
      */
     public GitHubPullRequestLabelCause(String labelUrl, String labellingAuthor, String label) {
-        this.labelUrl = labelUrl;
-        this.labellingAuthor = labellingAuthor;
-        this.label = label;
+        this.labelUrl = CauseStrings.intern(labelUrl);
+        this.labellingAuthor = CauseStrings.intern(labellingAuthor);
+        this.label = CauseStrings.intern(label);
+    }
+
+    private Object readResolve() {
+        labelUrl = CauseStrings.intern(labelUrl);
+        labellingAuthor = CauseStrings.intern(labellingAuthor);
+        label = CauseStrings.intern(label);
+        return this;
     }
 
     @Whitelisted
     @Override
     public String getShortDescription() {
-        return String.format("GitHub pull request label \"%s\" by %s", label, labellingAuthor);
+        if (shortDescription == null) {
+            shortDescription = "GitHub pull request label \"" + label + "\" by " + labellingAuthor;
+        }
+        return shortDescription;
     }
 
     /**
@@ -10,8 +10,9 @@ import java.io.Serializable;
  * Created by Micky Loo on 05/02/2019.
  */
 public final class GitHubPullRequestReviewCause extends Cause implements Serializable {
-    private final String reviewAuthor;
-    private final String pullRequestUrl;
+    private String reviewAuthor;
+    private String pullRequestUrl;
+    private transient String shortDescription;
 
     /**
      * Constructor.
@@ -19,14 +20,23 @@ public final class GitHubPullRequestReviewCause extends Cause implements Seriali
      * @param pullRequestUrl the URL for the GitHub review
      */
     public GitHubPullRequestReviewCause(String reviewAuthor, String pullRequestUrl) {
-        this.reviewAuthor = reviewAuthor;
-        this.pullRequestUrl = pullRequestUrl;
+        this.reviewAuthor = CauseStrings.intern(reviewAuthor);
+        this.pullRequestUrl = CauseStrings.intern(pullRequestUrl);
+    }
+
+    private Object readResolve() {
+        reviewAuthor = CauseStrings.intern(reviewAuthor);
+        pullRequestUrl = CauseStrings.intern(pullRequestUrl);
+        return this;
     }
 
     @Whitelisted
     @Override
     public String getShortDescription() {
-        return String.format("GitHub pull request review by %s", reviewAuthor);
+        if (shortDescription == null) {
+            shortDescription = "GitHub pull request review by " + reviewAuthor;
+        }
+        return shortDescription;
     }
 
     /**
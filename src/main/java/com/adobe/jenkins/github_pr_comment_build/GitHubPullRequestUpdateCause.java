@@ -10,8 +10,9 @@ import java.io.Serializable;
  * Created by saville on 10/13/2016.
  */
 public final class GitHubPullRequestUpdateCause extends Cause implements Serializable {
-    private final String updateAuthor;
-    private final String pullRequestUrl;
+    private String updateAuthor;
+    private String pullRequestUrl;
+    private transient String shortDescription;
 
     /**
      * Constructor.
@@ -19,14 +20,23 @@ public final class GitHubPullRequestUpdateCause extends Cause implements Seriali
      * @param pullRequestUrl the URL for the GitHub update
      */
     public GitHubPullRequestUpdateCause(String updateAuthor, String pullRequestUrl) {
-        this.updateAuthor = updateAuthor;
-        this.pullRequestUrl = pullRequestUrl;
+        this.updateAuthor = CauseStrings.intern(updateAuthor);
+        this.pullRequestUrl = CauseStrings.intern(pullRequestUrl);
+    }
+
+    private Object readResolve() {
+        updateAuthor = CauseStrings.intern(updateAuthor);
+        pullRequestUrl = CauseStrings.intern(pullRequestUrl);
+        return this;
     }
 
     @Whitelisted
     @Override
     public String getShortDescription() {
-        return String.format("GitHub pull request update by %s", updateAuthor);
+        if (shortDescription == null) {
+            shortDescription = "GitHub pull request update by " + updateAuthor;
+        }
+        return shortDescription;
     }
 
     /**
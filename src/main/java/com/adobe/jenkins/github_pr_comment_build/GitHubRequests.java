@@ -0,0 +1,44 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.security.ImpersonatingExecutorService;
+import jenkins.util.SystemProperties;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pools running the GitHub requests made for events off the webhook threads. Permission lookups have their
+ * own pool in {@link PermissionLookup}, so that reactions, metadata fetches and re-checks cannot delay them.
+ */
+final class GitHubRequests {
+    /**
+     * Maximum number of concurrent GitHub requests other than permission lookups.
+     */
+    private static final int THREADS = SystemProperties.getInteger(GitHubRequests.class.getName() + ".threads", 4);
+    /**
+     * Shared pool running the reactions, pull request metadata fetches and permission re-checks.
+     */
+    static final ExecutorService EXECUTOR = createExecutor(THREADS, "GitHub PR trigger request");
+
+    private GitHubRequests() {
+        // private
+    }
+
+    /**
+     * Creates a pool whose threads run as the system and stop when idle.
+     * @param threads the maximum number of threads
+     * @param name the name of the threads
+     * @return the pool
+     */
+    static ExecutorService createExecutor(int threads, String name) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamingThreadFactory(new DaemonThreadFactory(), name));
+        pool.allowCoreThreadTimeOut(true);
+        return new ImpersonatingExecutorService(pool, ACL.SYSTEM2);
+    }
+}
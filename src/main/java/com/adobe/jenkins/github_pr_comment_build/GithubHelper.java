@@ -3,11 +3,16 @@ package com.adobe.jenkins.github_pr_comment_build;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import hudson.model.Job;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import jenkins.scm.api.SCMSource;
 import org.jenkinsci.plugins.github_branch_source.Connector;
 import org.jenkinsci.plugins.github_branch_source.GitHubSCMSource;
 import org.kohsuke.github.GHPermissionType;
+import org.kohsuke.github.GHPullRequest;
 import org.kohsuke.github.GHRepository;
 import org.kohsuke.github.GitHub;
 import org.slf4j.LoggerFactory;
@@ -20,36 +25,38 @@ public class GithubHelper {
 
     private final static Logger LOG = LoggerFactory.getLogger(GithubHelper.class);
 
+    /**
+     * How long a retrieved repository is reused before being fetched again.
+     */
+    private static final long REPOSITORY_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    /**
+     * Maximum number of repositories kept.
+     */
+    private static final int MAX_REPOSITORIES = 256;
+    /**
+     * Recently retrieved repositories by {@link #getRepositoryKey(Job)}. Requests still made for permissions and
+     * reactions go through the HTTP response cache of the github-branch-source connections, which revalidates
+     * unchanged resources with conditional requests.
+     */
+    private static final Map<String, CachedRepository> REPOSITORIES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedRepository> eldest) {
+            return size() > MAX_REPOSITORIES;
+        }
+    };
+
     private GithubHelper() {
         // private
     }
 
     public static boolean isAuthorized(final Job<?, ?> job, final String author, String minimumPermissions) {
         try {
-            GHRepository ghRepository = getGHRepository(job);
-            if (ghRepository == null) {
+            GHPermissionType authorPermissions = getPermission(job, author);
+            if (authorPermissions == null) {
                 LOG.debug("Could not retrieve GitHub repository, User {} not authorized", author);
                 return false;
             }
-            GHPermissionType authorPermissions = ghRepository.getPermission(author);
-            boolean authorized = false;
-            switch (GHPermissionType.valueOf(minimumPermissions)) {
-                case NONE:
-                    authorized = true;
-                    break;
-                default: // break intentionally omitted
-                case WRITE:
-                    if(authorPermissions == GHPermissionType.WRITE || authorPermissions == GHPermissionType.ADMIN) {
-                        authorized = true;
-                    }
-                    break;
-                case ADMIN:
-                    if(authorPermissions == GHPermissionType.ADMIN) {
-                        authorized = true;
-                    }
-                    break;
-            }
-
+            boolean authorized = isAuthorized(authorPermissions, minimumPermissions);
             LOG.debug("User {} is {}authorized for job {}", author, authorized ? "" : "not ", job.getFullName());
             return authorized;
         } catch (final IOException | IllegalArgumentException e) {
@@ -60,6 +67,85 @@ public class GithubHelper {
         }
     }
 
+    /**
+     * Checks already retrieved permissions of an author against the minimum permissions of a trigger.
+     * @param authorPermissions the permissions of the author on the repository, may be null if unknown
+     * @param minimumPermissions the minimum permissions required by the trigger
+     * @return whether the author is authorized
+     */
+    static boolean isAuthorized(GHPermissionType authorPermissions, String minimumPermissions) {
+        try {
+            switch (GHPermissionType.valueOf(minimumPermissions)) {
+                case NONE:
+                    return true;
+                default: // break intentionally omitted
+                case WRITE:
+                    return authorPermissions == GHPermissionType.WRITE || authorPermissions == GHPermissionType.ADMIN;
+                case ADMIN:
+                    return authorPermissions == GHPermissionType.ADMIN;
+            }
+        } catch (final IllegalArgumentException e) {
+            LOG.debug("Unknown minimum permissions {}", minimumPermissions);
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves the permissions of an author on the GitHub repository of a job.
+     * @param job the job
+     * @param author the GitHub login of the author
+     * @return the permissions, or null if the repository could not be retrieved
+     * @throws IOException if the GitHub API call failed or its circuit breaker is open
+     */
+    static GHPermissionType getPermission(@Nonnull final Job<?, ?> job, final String author) throws IOException {
+        GHRepository ghRepository = getGHRepository(job);
+        if (ghRepository == null) {
+            return null;
+        }
+        return GitHubCircuitBreaker.call(getApiUri(job), "permission", () -> ghRepository.getPermission(author));
+    }
+
+    /**
+     * Retrieves a pull request of the GitHub repository of a job.
+     * @param job the job
+     * @param number the pull request number
+     * @return the pull request, or null if the repository could not be retrieved
+     * @throws IOException if the GitHub API call failed or its circuit breaker is open
+     */
+    static GHPullRequest getPullRequest(@Nonnull final Job<?, ?> job, final int number) throws IOException {
+        GHRepository ghRepository = getGHRepository(job);
+        if (ghRepository == null) {
+            return null;
+        }
+        return GitHubCircuitBreaker.call(getApiUri(job), "pull request", () -> ghRepository.getPullRequest(number));
+    }
+
+    /**
+     * Computes a key identifying the GitHub repository and the credentials used to access it for a job. Jobs with
+     * the same key see the same permissions for a given author.
+     * @param job the job
+     * @return the key, or null if the job does not come from a GitHub SCM source
+     */
+    static String getRepositoryKey(@Nonnull final Job<?, ?> job) {
+        if (SCMSource.SourceByItem.findSource(job) instanceof GitHubSCMSource gitHubSource) {
+            return String.join("|", gitHubSource.getApiUri(), gitHubSource.getCredentialsId(),
+                    gitHubSource.getRepoOwner(), gitHubSource.getRepository()).toLowerCase(Locale.ROOT);
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the GitHub API URI of the repository of a job, identifying its circuit breakers.
+     * @param job the job
+     * @return the API URI, or null if the job does not come from a GitHub SCM source
+     */
+    static String getApiUri(@Nonnull final Job<?, ?> job) {
+        if (SCMSource.SourceByItem.findSource(job) instanceof GitHubSCMSource gitHubSource) {
+            return gitHubSource.getApiUri();
+        }
+        return null;
+    }
+
     public static GitHub getGitHub(SCMSource scmSource, @Nonnull final Job<?, ?> job) {
         if (scmSource instanceof GitHubSCMSource gitHubSource) {
             final StandardCredentials credentials = Connector.lookupScanCredentials(
@@ -80,7 +166,13 @@ public class GithubHelper {
         throw new IllegalArgumentException("Job's SCM is not GitHub.");
     }
 
-    private static GHRepository getGHRepository(@Nonnull final Job<?, ?> job) throws IOException {
+    /**
+     * Retrieves the GitHub repository of a job, reusing it for a few minutes.
+     * @param job the job
+     * @return the repository, or null if the GitHub connection failed
+     * @throws IOException if the GitHub API call failed or its circuit breaker is open
+     */
+    static GHRepository getGHRepository(@Nonnull final Job<?, ?> job) throws IOException {
         final SCMSource scmSource = SCMSource.SourceByItem.findSource(job);
         GitHub github = getGitHub(scmSource, job);
         if (github == null) {
@@ -89,6 +181,32 @@ public class GithubHelper {
         }
         // Already checked by getGitHub method
         final GitHubSCMSource gitHubSource = (GitHubSCMSource) scmSource;
-        return github.getRepository(gitHubSource.getRepoOwner() + "/" + gitHubSource.getRepository());
+        final String key = getRepositoryKey(job);
+        final long now = System.currentTimeMillis();
+        synchronized (REPOSITORIES) {
+            CachedRepository cached = REPOSITORIES.get(key);
+            // A new connection means the credentials changed
+            if (cached != null && cached.github == github && now - cached.retrieved < REPOSITORY_TTL_MILLIS) {
+                return cached.repository;
+            }
+        }
+        GHRepository repository = GitHubCircuitBreaker.call(gitHubSource.getApiUri(), "repository",
+                () -> github.getRepository(gitHubSource.getRepoOwner() + "/" + gitHubSource.getRepository()));
+        synchronized (REPOSITORIES) {
+            REPOSITORIES.put(key, new CachedRepository(github, repository, now));
+        }
+        return repository;
+    }
+
+    private static final class CachedRepository {
+        private final GitHub github;
+        private final GHRepository repository;
+        private final long retrieved;
+
+        private CachedRepository(GitHub github, GHRepository repository, long retrieved) {
+            this.github = github;
+            this.repository = repository;
+            this.retrieved = retrieved;
+        }
     }
 }
@@ -2,15 +2,18 @@ package com.adobe.jenkins.github_pr_comment_build;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 import com.cloudbees.jenkins.GitHubRepositoryName;
 import hudson.Extension;
 import hudson.model.Job;
 import jenkins.scm.api.SCMSource;
+import net.sf.json.JSONException;
 import net.sf.json.JSONObject;
 import org.kohsuke.github.GHEvent;
 import org.kohsuke.github.GHEventPayload;
@@ -48,28 +51,53 @@ public class IssueCommentGHEventSubscriber extends BasePRGHEventSubscriber<Trigg
         return immutableEnumSet(ISSUE_COMMENT);
     }
 
-    private void reactToComment(final Job<?, ?> job, final String payload) {
-        try {
-            final SCMSource scmSource = SCMSource.SourceByItem.findSource(job);
-            final GitHub gitHub = GithubHelper.getGitHub(scmSource, job);
-            if (gitHub == null) {
-                LOGGER.log(Level.WARNING, "Could not react to triggering comment, GitHub connection failed");
-                return;
+    /**
+     * Adds a reaction to the comment of an event, off the webhook thread so that a slow GitHub does not hold it.
+     */
+    private void reactToComment(final Job<?, ?> job, final String payload, final ReactionContent reaction) {
+        GitHubRequests.EXECUTOR.execute(() -> {
+            try {
+                final SCMSource scmSource = SCMSource.SourceByItem.findSource(job);
+                final GitHub gitHub = GithubHelper.getGitHub(scmSource, job);
+                if (gitHub == null) {
+                    LOGGER.log(Level.WARNING, "Could not react to triggering comment, GitHub connection failed");
+                    return;
+                }
+                final GHEventPayload.IssueComment event = gitHub.parseEventPayload(
+                        new StringReader(payload), GHEventPayload.IssueComment.class);
+                GitHubCircuitBreaker.call(GithubHelper.getApiUri(job), "reaction",
+                        () -> event.getComment().createReaction(reaction));
+                LOGGER.log(Level.FINE, "Added {0} reaction to comment {1}",
+                        new Object[] { reaction.getContent(), event.getComment().getHtmlUrl() });
+            } catch (final GitHubCircuitBreaker.OpenException e) {
+                LOGGER.log(Level.FINE, "Could not react to triggering comment", e);
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Could not react to triggering comment", e);
             }
-            final GHEventPayload.IssueComment event = gitHub.parseEventPayload(
-                    new StringReader(payload), GHEventPayload.IssueComment.class);
-            event.getComment().createReaction(ReactionContent.PLUS_ONE);
-            LOGGER.log(Level.FINE, "Added plus one reaction to comment {0}", event.getComment().getHtmlUrl());
-        } catch (final IOException e) {
-            LOGGER.log(Level.WARNING, "Could not react to triggering comment", e);
-        }
+        });
     }
 
     @Override
     protected void postStartJob(TriggerPRCommentBranchProperty branchProp, Job<?, ?> job, String payload) {
         // Add reaction if configured
         if (branchProp.getAddReaction()) {
-            reactToComment(job, payload);
+            reactToComment(job, payload, ReactionContent.PLUS_ONE);
+        }
+    }
+
+    @Override
+    protected void postThrottled(TriggerPRCommentBranchProperty branchProp, Job<?, ?> job, String payload) {
+        if (TriggerGlobalConfiguration.get().isReactToThrottledComments()) {
+            reactToComment(job, payload, ReactionContent.CONFUSED);
+        }
+    }
+
+    private static void recordSeen(JSONObject commentJson) {
+        try {
+            SeenTriggerEvents.record(SeenTriggerEvents.commentKey(commentJson.getLong("id"),
+                    Instant.parse(commentJson.getString("updated_at")).toEpochMilli()));
+        } catch (JSONException | DateTimeParseException e) {
+            LOGGER.log(Level.FINE, "Could not identify comment " + commentJson.optString("html_url"), e);
         }
     }
 
@@ -80,6 +108,7 @@ public class IssueCommentGHEventSubscriber extends BasePRGHEventSubscriber<Trigg
      */
     @Override
     protected void onEvent(GHEvent event, String payload) {
+        DecisionTrace trace = DecisionTrace.start(event);
         JSONObject json = JSONObject.fromObject(payload);
         JSONObject issueJson = json.getJSONObject("issue");
 
@@ -87,6 +116,7 @@ public class IssueCommentGHEventSubscriber extends BasePRGHEventSubscriber<Trigg
         final String issueUrl = issueJson.getString("html_url");
         if (!issueJson.containsKey("pull_request")) {
             LOGGER.log(Level.FINE, "Issue comment is not for a pull request, ignoring {0}", issueUrl);
+            trace.reject(DecisionTrace.Stage.PRE_FILTER, "not a pull request");
             return;
         }
         final int pullRequestId = issueJson.getInt("number");
@@ -102,24 +132,52 @@ public class IssueCommentGHEventSubscriber extends BasePRGHEventSubscriber<Trigg
             LOGGER.log(Level.FINER, "Issue comment action is not created or edited ({0}) for PR {1}",
                     new Object[] { action, issueUrl }
             );
+            trace.reject(DecisionTrace.Stage.PRE_FILTER, "ignored action " + action);
             return;
         }
 
         String repoUrl = getRepoUrl(json);
         final GitHubRepositoryName changedRepository = getChangedRepository(repoUrl);
         if (changedRepository == null) {
+            trace.reject(DecisionTrace.Stage.REPO_MATCH, "malformed repository URL " + repoUrl);
             return;
         }
 
         LOGGER.log(Level.FINE, "Received comment on PR {0} for {1}", new Object[] { pullRequestId, repoUrl });
-        checkAndRunJobs(changedRepository, pullRequestId, commentAuthor, payload,
+        recordSeen(json.getJSONObject("comment"));
+
+        // An edit only triggers if it turns a non-matching comment into a matching one, unless opted in
+        final long commentId = json.getJSONObject("comment").optLong("id", -1);
+        final String bodyHash = CommentMatchHistory.hash(commentBody);
+        final CommentMatchHistory.Entry previous = commentId < 0 ? null : CommentMatchHistory.get(commentId);
+        final boolean edited = ACTION_EDITED.equals(action);
+        if (edited && previous != null && previous.getBodyHash().equals(bodyHash)) {
+            LOGGER.log(Level.FINE, "Comment {0} was edited without changing its body, ignoring", commentUrl);
+            trace.reject(DecisionTrace.Stage.PRE_FILTER, "edit without body change");
+            return;
+        }
+        final String previousBody = edited && previous == null ? getPreviousBody(json) : null;
+        final Set<String> matchedPatterns = new HashSet<>();
+
+        final int maxStoredBodyLength = TriggerGlobalConfiguration.get().getMaxStoredCommentBodyLength();
+        // Most comments contain none of the literals required by the patterns, scan for them once for all jobs
+        final LiteralPrefilter.Scan prefilter = LiteralPrefilter.scan(
+                changedRepository.getUserName() + "/" + changedRepository.getRepositoryName(), commentBody);
+        checkAndRunJobs(trace, changedRepository, pullRequestId, commentAuthor, payload,
                 (job,branchProp) -> {
             String expectedCommentBody = branchProp.getCommentBody();
-            Pattern pattern = Pattern.compile(expectedCommentBody,
-                    Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-            if (commentBody == null || pattern.matcher(commentBody).matches()) {
+            if (commentBody == null || prefilter.mayMatch(expectedCommentBody) &&
+                    TriggerPatterns.matches(expectedCommentBody, commentBody)) {
+                matchedPatterns.add(expectedCommentBody);
+                if (edited && !branchProp.isRetriggerOnEdit() &&
+                        matchedBeforeEdit(expectedCommentBody, previous, previousBody)) {
+                    LOGGER.log(Level.FINER, "Edited comment {0} already matched ({1}) for {2}",
+                            new Object[] { commentUrl, expectedCommentBody, job.getFullName() });
+                    return null;
+                }
                 // Comment matches, return a cause to trigger the job to start
-                return new GitHubPullRequestCommentCause(commentUrl, commentAuthor, commentBody);
+                return new GitHubPullRequestCommentCause(commentUrl, commentAuthor, commentBody,
+                        maxStoredBodyLength);
             }
             LOGGER.log(Level.FINER,
                     "Issue comment does not match the trigger build string ({0}) for {1}",
@@ -127,5 +185,33 @@ public class IssueCommentGHEventSubscriber extends BasePRGHEventSubscriber<Trigg
             );
             return null;
         });
+        if (commentId >= 0) {
+            CommentMatchHistory.record(commentId, bodyHash, matchedPatterns);
+        }
+    }
+
+    /**
+     * Retrieves the body of an edited comment before the edit.
+     * @param json the event payload
+     * @return the previous body, or null if it is not part of the payload
+     */
+    private static String getPreviousBody(JSONObject json) {
+        JSONObject changes = json.optJSONObject("changes");
+        JSONObject bodyChange = changes == null ? null : changes.optJSONObject("body");
+        return bodyChange == null || !bodyChange.has("from") ? null : bodyChange.getString("from");
+    }
+
+    /**
+     * Checks whether an edited comment already matched a trigger pattern before the edit.
+     * @param pattern the trigger pattern
+     * @param previous the recorded outcome of the comment, or null if unknown
+     * @param previousBody the body before the edit, or null if unknown
+     * @return whether the comment matched, false if unknown
+     */
+    static boolean matchedBeforeEdit(String pattern, CommentMatchHistory.Entry previous, String previousBody) {
+        if (previous != null) {
+            return previous.getMatchedPatterns().contains(pattern);
+        }
+        return previousBody != null && TriggerPatterns.matches(pattern, previousBody);
     }
 }
@@ -8,7 +8,6 @@ import org.kohsuke.github.GHEvent;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
 import static com.google.common.collect.Sets.immutableEnumSet;
 import static org.kohsuke.github.GHEvent.PULL_REQUEST;
@@ -64,6 +63,8 @@ public class IssueLabelGHEventSubscriber extends BasePRGHEventSubscriber<Trigger
             );
             return;
         }
+        // Only handled actions are traced, the other pull request events being frequent
+        DecisionTrace trace = DecisionTrace.start(event);
 
         final String label = json.getJSONObject("label").getString("name");
         final String labelUrl = json.getJSONObject("label").getString("url");
@@ -71,16 +72,17 @@ public class IssueLabelGHEventSubscriber extends BasePRGHEventSubscriber<Trigger
         String repoUrl = getRepoUrl(json);
         final GitHubRepositoryName changedRepository = getChangedRepository(repoUrl);
         if (changedRepository == null) {
+            trace.reject(DecisionTrace.Stage.REPO_MATCH, "malformed repository URL " + repoUrl);
             return;
         }
 
         LOGGER.log(Level.FINE, "Received label on PR {0} for {1}", new Object[]{pullRequestId, repoUrl});
-        checkAndRunJobs(changedRepository, pullRequestId, labellingAuthor, null,
+        SeenTriggerEvents.record(SeenTriggerEvents.labelKey(TriggerIndex.key(changedRepository.getUserName(),
+                changedRepository.getRepositoryName(), pullRequestId), label));
+        checkAndRunJobs(trace, changedRepository, pullRequestId, labellingAuthor, getHeadSha(pullRequest), null,
                 (job, branchProp) -> {
             String expectedLabel = branchProp.getLabel();
-            Pattern pattern = Pattern.compile(expectedLabel,
-                    Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
-            if (pattern.matcher(label).matches()) {
+            if (TriggerPatterns.matches(expectedLabel, label)) {
                 return new GitHubPullRequestLabelCause(labelUrl, labellingAuthor, label);
             }
             LOGGER.log(Level.FINER,
@@ -0,0 +1,146 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aho-Corasick automaton over the literals required by the trigger patterns of a repository. A comment is scanned
+ * once for all the literals, and only the patterns whose literal appears in it need to be matched.
+ */
+final class LiteralPrefilter {
+    /**
+     * Maximum number of literals in the automaton of a repository, which is restarted when reached.
+     */
+    private static final int MAX_LITERALS = 256;
+    /**
+     * Automaton by repository, grown as new patterns are seen.
+     */
+    private static final Map<String, LiteralPrefilter> BY_REPOSITORY = new ConcurrentHashMap<>();
+
+    private final Set<String> literals;
+    private final Node root = new Node();
+
+    private LiteralPrefilter(Set<String> literals) {
+        this.literals = literals;
+        for (String literal : literals) {
+            Node node = root;
+            for (int i = 0; i < literal.length(); i++) {
+                node = node.next.computeIfAbsent(literal.charAt(i), c -> new Node());
+            }
+            node.outputs.add(literal);
+        }
+        // Breadth first computation of the failure links
+        Deque<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+            node.next.forEach((c, child) -> {
+                Node fail = node.fail;
+                while (fail != root && !fail.next.containsKey(c)) {
+                    fail = fail.fail;
+                }
+                Node target = fail.next.get(c);
+                child.fail = target != null ? target : root;
+                child.outputs.addAll(child.fail.outputs);
+                queue.add(child);
+            });
+        }
+    }
+
+    /**
+     * Starts the scan of a comment against the trigger patterns of a repository.
+     * @param repository the repository key
+     * @param text the comment
+     * @return the scan, lazily run on the first pattern checked
+     */
+    static Scan scan(String repository, String text) {
+        return new Scan(repository.toLowerCase(Locale.ROOT), text);
+    }
+
+    private static LiteralPrefilter forLiteral(String repository, String literal) {
+        LiteralPrefilter prefilter = BY_REPOSITORY.get(repository);
+        if (prefilter != null && prefilter.literals.contains(literal)) {
+            return prefilter;
+        }
+        return BY_REPOSITORY.compute(repository, (key, existing) -> {
+            if (existing != null && existing.literals.contains(literal)) {
+                return existing;
+            }
+            Set<String> literals = new LinkedHashSet<>();
+            if (existing != null && existing.literals.size() < MAX_LITERALS) {
+                literals.addAll(existing.literals);
+            }
+            literals.add(literal);
+            return new LiteralPrefilter(Collections.unmodifiableSet(literals));
+        });
+    }
+
+    private Collection<String> find(String text) {
+        Set<String> found = new HashSet<>();
+        Node node = root;
+        for (int i = 0; i < text.length() && found.size() < literals.size(); i++) {
+            char c = TriggerPatterns.toLowerAscii(text.charAt(i));
+            while (node != root && !node.next.containsKey(c)) {
+                node = node.fail;
+            }
+            node = node.next.getOrDefault(c, root);
+            found.addAll(node.outputs);
+        }
+        return found;
+    }
+
+    /**
+     * The scan of one comment, to be used by a single thread.
+     */
+    static final class Scan {
+        private final String repository;
+        private final String text;
+        private LiteralPrefilter prefilter;
+        private Collection<String> found;
+
+        private Scan(String repository, String text) {
+            this.repository = repository;
+            this.text = text;
+        }
+
+        /**
+         * Checks whether the comment may match a trigger pattern.
+         * @param regex the trigger pattern
+         * @return false if the comment cannot match, true if it has to be matched to know
+         */
+        boolean mayMatch(String regex) {
+            String literal = TriggerPatterns.requiredLiteral(regex);
+            if (literal == null || text == null) {
+                return true;
+            }
+            if (prefilter == null || !prefilter.literals.contains(literal)) {
+                prefilter = forLiteral(repository, literal);
+                found = null;
+            }
+            if (found == null) {
+                found = prefilter.find(text);
+            }
+            return found.contains(literal);
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> next = new HashMap<>(4);
+        private final List<String> outputs = new ArrayList<>(1);
+        private Node fail;
+    }
+}
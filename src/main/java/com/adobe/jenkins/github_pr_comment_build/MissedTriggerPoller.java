@@ -0,0 +1,289 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Job;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.branch.BranchProperty;
+import jenkins.branch.MultiBranchProject;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.kohsuke.github.GHEvent;
+import org.kohsuke.github.GHIssueComment;
+import org.kohsuke.github.GHIssueEvent;
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHPullRequestReview;
+import org.kohsuke.github.GHRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Optionally polls the pull requests having comment, label or review triggers for events received while webhooks
+ * were not delivered, and hands them to the same subscribers as webhooks. Events already handled, live or by a
+ * previous poll, are skipped. Handled events are only remembered in memory, so polls never go back before the
+ * startup of Jenkins. Unchanged pages are revalidated through the conditional requests of the GitHub client cache,
+ * so idle pull requests barely count against the rate limit.
+ */
+@Extension
+public class MissedTriggerPoller extends AsyncPeriodicWork {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(MissedTriggerPoller.class.getName());
+    /**
+     * Overlap between two polls, covering clock skew with GitHub.
+     */
+    private static final long OVERLAP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Poll cursor by repository, in epoch milliseconds.
+     */
+    private Map<String, Long> cursors;
+    private long lastPoll;
+    /**
+     * Startup time, before which events handled live are no longer known to {@link SeenTriggerEvents}.
+     */
+    private final long started = System.currentTimeMillis();
+
+    public MissedTriggerPoller() {
+        super("GitHub PR missed trigger poller");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return TimeUnit.MINUTES.toMillis(1);
+    }
+
+    @Override
+    protected void execute(TaskListener listener) {
+        TriggerGlobalConfiguration config = TriggerGlobalConfiguration.get();
+        long now = System.currentTimeMillis();
+        if (!config.isCatchUpPolling() ||
+                now - lastPoll < TimeUnit.MINUTES.toMillis(config.getCatchUpPollingIntervalMinutes())) {
+            return;
+        }
+        lastPoll = now;
+        if (cursors == null) {
+            cursors = loadCursors();
+        }
+        try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+            getPolledPullRequests().forEach((repository, pullRequests) -> {
+                Long cursor = cursors.get(repository);
+                // Events from before the startup may have been handled live, and cannot be told apart
+                if (cursor == null ||
+                        poll(repository, pullRequests, new Date(Math.max(cursor - OVERLAP_MILLIS, started)))) {
+                    cursors.put(repository, now);
+                }
+            });
+        }
+        saveCursors();
+    }
+
+    /**
+     * Groups the indexed pull requests having a trigger that may be caught up by repository.
+     * @return a job for each pull request number by repository
+     */
+    private Map<String, Map<Integer, Job<?, ?>>> getPolledPullRequests() {
+        Map<String, Map<Integer, Job<?, ?>>> polled = new LinkedHashMap<>();
+        TriggerIndex.get().getEntries().forEach((key, names) -> {
+            int separator = key.lastIndexOf('#');
+            for (String name : names) {
+                Job<?, ?> job = Jenkins.get().getItemByFullName(name, Job.class);
+                if (job != null && key.equals(TriggerIndex.key(job)) && hasPolledTrigger(job)) {
+                    polled.computeIfAbsent(key.substring(0, separator), k -> new LinkedHashMap<>())
+                            .put(Integer.parseInt(key.substring(separator + 1)), job);
+                    break;
+                }
+            }
+        });
+        return polled;
+    }
+
+    private static boolean hasPolledTrigger(Job<?, ?> job) {
+        for (BranchProperty prop : ((MultiBranchProject) job.getParent()).getProjectFactory().
+                getBranch(job).getProperties()) {
+            if (prop instanceof TriggerPRCommentBranchProperty || prop instanceof TriggerPRLabelBranchProperty ||
+                    prop instanceof TriggerPRReviewBranchProperty) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Polls the pull requests of a repository.
+     * @param repository the repository key
+     * @param pullRequests a job for each pull request number
+     * @param since the time from which events are caught up
+     * @return true if all pull requests were polled, false to poll them again from the same time
+     */
+    private boolean poll(String repository, Map<Integer, Job<?, ?>> pullRequests, Date since) {
+        Job<?, ?> anyJob = pullRequests.values().iterator().next();
+        try {
+            // Through the repository cache and the circuit breakers shared with webhooks
+            GHRepository ghRepository = GithubHelper.getGHRepository(anyJob);
+            if (ghRepository == null) {
+                LOGGER.log(Level.FINE, "Could not poll {0}, GitHub connection failed", repository);
+                return false;
+            }
+            String host = ghRepository.getHtmlUrl().getHost();
+            for (Map.Entry<Integer, Job<?, ?>> entry : pullRequests.entrySet()) {
+                int pullRequestId = entry.getKey();
+                String key = PullRequestMetadata.key(host, ghRepository.getOwnerName(), ghRepository.getName(),
+                        pullRequestId);
+                PullRequestMetadata metadata = PullRequestMetadata.getCached(key);
+                if (metadata != null && !metadata.isOpen()) {
+                    // Closed since the last indexing, as reported by a recent webhook
+                    continue;
+                }
+                GHPullRequest pullRequest = GithubHelper.getPullRequest(entry.getValue(), pullRequestId);
+                if (pullRequest == null) {
+                    return false;
+                }
+                PullRequestMetadata.put(key, PullRequestMetadata.of(pullRequest));
+                if (pullRequest.getState() == GHIssueState.OPEN) {
+                    poll(ghRepository, pullRequest, since);
+                }
+            }
+            return true;
+        } catch (GitHubCircuitBreaker.OpenException e) {
+            LOGGER.log(Level.FINE, "Could not poll {0}: {1}", new Object[] { repository, e.getMessage() });
+            return false;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not poll " + repository + " for missed triggers", e);
+            return false;
+        }
+    }
+
+    private void poll(GHRepository repository, GHPullRequest pullRequest, Date since) throws IOException {
+        JSONObject repositoryJson = repositoryEvent(repository);
+        String pullRequestKey = TriggerIndex.key(repository.getOwnerName(), repository.getName(),
+                pullRequest.getNumber());
+
+        for (GHIssueComment comment : pullRequest.listComments()) {
+            Date updatedAt = comment.getUpdatedAt();
+            if (updatedAt.before(since) ||
+                    SeenTriggerEvents.contains(SeenTriggerEvents.commentKey(comment.getId(), updatedAt.getTime()))) {
+                continue;
+            }
+            JSONObject json = new JSONObject();
+            json.put("action", updatedAt.equals(comment.getCreatedAt()) ? "created" : "edited");
+            json.put("issue", new JSONObject()
+                    .element("html_url", pullRequest.getHtmlUrl().toString())
+                    .element("number", pullRequest.getNumber())
+                    .element("pull_request", new JSONObject().element("html_url", pullRequest.getHtmlUrl().toString())));
+            json.put("comment", new JSONObject()
+                    .element("id", comment.getId())
+                    .element("body", Objects.toString(comment.getBody(), ""))
+                    .element("html_url", comment.getHtmlUrl().toString())
+                    .element("updated_at", updatedAt.toInstant().toString())
+                    .element("user", new JSONObject().element("login", comment.getUser().getLogin())));
+            json.put("repository", repositoryJson);
+            LOGGER.log(Level.INFO, "Catching up with missed comment {0}", comment.getHtmlUrl());
+            ExtensionList.lookupSingleton(IssueCommentGHEventSubscriber.class)
+                    .onEvent(GHEvent.ISSUE_COMMENT, json.toString());
+        }
+
+        for (GHPullRequestReview review : pullRequest.listReviews()) {
+            Date submittedAt = review.getSubmittedAt();
+            if (submittedAt == null || submittedAt.before(since) ||
+                    SeenTriggerEvents.contains(SeenTriggerEvents.reviewKey(review.getId()))) {
+                continue;
+            }
+            JSONObject json = pullRequestEvent(pullRequest, repositoryJson, review.getUser().getLogin());
+            json.put("action", "submitted");
+            json.put("review", new JSONObject().element("id", review.getId()));
+            LOGGER.log(Level.INFO, "Catching up with missed review {0}", review.getHtmlUrl());
+            ExtensionList.lookupSingleton(PRReviewGHEventSubscriber.class)
+                    .onEvent(GHEvent.PULL_REQUEST_REVIEW, json.toString());
+        }
+
+        Map<String, GHIssueEvent> labelEvents = new HashMap<>();
+        for (GHIssueEvent event : pullRequest.listEvents()) {
+            if ("labeled".equals(event.getEvent()) && event.getLabel() != null && !event.getCreatedAt().before(since)) {
+                // Only the latest addition of each label matters
+                labelEvents.put(event.getLabel().getName(), event);
+            }
+        }
+        for (GHIssueEvent event : labelEvents.values()) {
+            // A label removed and added again since it was handled live is a new event
+            if (SeenTriggerEvents.containsSince(SeenTriggerEvents.labelKey(pullRequestKey, event.getLabel().getName()),
+                    event.getCreatedAt().getTime() - OVERLAP_MILLIS)) {
+                continue;
+            }
+            JSONObject json = pullRequestEvent(pullRequest, repositoryJson, event.getActor().getLogin());
+            json.put("action", "labeled");
+            json.put("label", new JSONObject()
+                    .element("name", event.getLabel().getName())
+                    .element("url", event.getLabel().getUrl()));
+            LOGGER.log(Level.INFO, "Catching up with missed label {0} on {1}",
+                    new Object[] { event.getLabel().getName(), pullRequest.getHtmlUrl() });
+            ExtensionList.lookupSingleton(IssueLabelGHEventSubscriber.class)
+                    .onEvent(GHEvent.PULL_REQUEST, json.toString());
+        }
+    }
+
+    private static JSONObject pullRequestEvent(GHPullRequest pullRequest, JSONObject repository, String sender) {
+        JSONObject json = new JSONObject();
+        json.put("pull_request", new JSONObject()
+                .element("html_url", pullRequest.getHtmlUrl().toString())
+                .element("number", pullRequest.getNumber()));
+        json.put("sender", new JSONObject().element("login", sender));
+        json.put("repository", repository);
+        return json;
+    }
+
+    /**
+     * Builds the repository of an event payload, with the fields needed to parse it back into a
+     * {@link GHRepository}, such as when reacting to a comment.
+     * @param repository the repository
+     * @return the JSON representation of the repository
+     */
+    private static JSONObject repositoryEvent(GHRepository repository) {
+        return new JSONObject()
+                .element("html_url", repository.getHtmlUrl().toString())
+                .element("name", repository.getName())
+                .element("full_name", repository.getFullName())
+                .element("owner", new JSONObject().element("login", repository.getOwnerName()));
+    }
+
+    private static XmlFile getCursorsFile() {
+        return new XmlFile(Jenkins.XSTREAM2,
+                new File(Jenkins.get().getRootDir(), MissedTriggerPoller.class.getName() + ".xml"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long> loadCursors() {
+        XmlFile file = getCursorsFile();
+        if (file.exists()) {
+            try {
+                return new HashMap<>((Map<String, Long>) file.read());
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not load the missed trigger poll cursors, starting over", e);
+            }
+        }
+        return new HashMap<>();
+    }
+
+    private void saveCursors() {
+        try {
+            getCursorsFile().write(cursors);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not save the missed trigger poll cursors", e);
+        }
+    }
+}
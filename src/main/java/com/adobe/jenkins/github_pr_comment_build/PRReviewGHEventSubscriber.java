@@ -39,6 +39,7 @@ public class PRReviewGHEventSubscriber extends BasePRGHEventSubscriber<TriggerPR
      */
     @Override
     protected void onEvent(GHEvent event, String payload) {
+        DecisionTrace trace = DecisionTrace.start(event);
         JSONObject json = JSONObject.fromObject(payload);
 
         JSONObject pullRequest = json.getJSONObject("pull_request");
@@ -50,11 +51,16 @@ public class PRReviewGHEventSubscriber extends BasePRGHEventSubscriber<TriggerPR
         String repoUrl = getRepoUrl(json);
         final GitHubRepositoryName changedRepository = getChangedRepository(repoUrl);
         if (changedRepository == null) {
+            trace.reject(DecisionTrace.Stage.REPO_MATCH, "malformed repository URL " + repoUrl);
             return;
         }
 
         LOGGER.log(Level.FINE, "Received review on PR {0} for {1}", new Object[] { pullRequestId, repoUrl });
-        checkAndRunJobs(changedRepository, pullRequestId, author, null,
+        JSONObject review = json.optJSONObject("review");
+        if (review != null && review.has("id")) {
+            SeenTriggerEvents.record(SeenTriggerEvents.reviewKey(review.getLong("id")));
+        }
+        checkAndRunJobs(trace, changedRepository, pullRequestId, author, getHeadSha(pullRequest), null,
                 (job, branchProp) -> {
             return new GitHubPullRequestReviewCause(author, pullRequestUrl);
         });
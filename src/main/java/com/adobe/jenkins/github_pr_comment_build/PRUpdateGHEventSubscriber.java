@@ -62,15 +62,18 @@ public class PRUpdateGHEventSubscriber extends BasePRGHEventSubscriber<TriggerPR
             );
             return;
         }
+        // Only handled actions are traced, the other pull request events being frequent
+        DecisionTrace trace = DecisionTrace.start(event);
 
         String repoUrl = getRepoUrl(json);
         final GitHubRepositoryName changedRepository = getChangedRepository(repoUrl);
         if (changedRepository == null) {
+            trace.reject(DecisionTrace.Stage.REPO_MATCH, "malformed repository URL " + repoUrl);
             return;
         }
 
         LOGGER.log(Level.FINE, "Received update on PR {0} for {1}", new Object[] { pullRequestId, repoUrl });
-        checkAndRunJobs(changedRepository, pullRequestId, author, null,
+        checkAndRunJobs(trace, changedRepository, pullRequestId, author, getHeadSha(pullRequest), null,
                 (job, branchProp) -> new GitHubPullRequestUpdateCause(author, pullRequestUrl));
     }
 }
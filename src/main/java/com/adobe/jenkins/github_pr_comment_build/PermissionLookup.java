@@ -0,0 +1,104 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.model.Job;
+import jenkins.util.SystemProperties;
+import org.kohsuke.github.GHPermissionType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resolves the GitHub repository permissions of the author of a single event for all the jobs it may trigger.
+ * Lookups run concurrently on a bounded pool of their own, and jobs using the same repository and credentials share
+ * a single in-flight request. Waiting for them is bounded by the processing deadline of the event.
+ */
+final class PermissionLookup {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(PermissionLookup.class.getName());
+    /**
+     * Maximum number of concurrent permission requests across all events.
+     */
+    private static final int THREADS = SystemProperties.getInteger(PermissionLookup.class.getName() + ".threads", 8);
+    /**
+     * Pool running the permission lookups only, the other GitHub requests using {@link GitHubRequests#EXECUTOR}.
+     */
+    private static final ExecutorService EXECUTOR =
+            GitHubRequests.createExecutor(THREADS, "GitHub PR trigger permission lookup");
+
+    private final String author;
+    private final long deadlineNanos;
+    private final Map<String, CompletableFuture<GHPermissionType>> lookups = new HashMap<>();
+
+    /**
+     * Constructor.
+     * @param author the GitHub login of the author of the event
+     * @param deadlineNanos the {@link System#nanoTime()} after which lookups are no longer waited for
+     */
+    PermissionLookup(String author, long deadlineNanos) {
+        this.author = author;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Starts the permission lookup for a job, unless one is already in flight for the same repository.
+     * @param job the job
+     */
+    void start(Job<?, ?> job) {
+        String key = GithubHelper.getRepositoryKey(job);
+        if (key == null) {
+            key = job.getFullName();
+        }
+        lookups.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> fetch(job), EXECUTOR));
+    }
+
+    /**
+     * Waits for the permissions of the author on the repository of a job.
+     * @param job the job, for which {@link #start(Job)} should have been called
+     * @return the permissions, or null if the job has no GitHub repository
+     * @throws IOException if GitHub could not be asked in time, the permissions being unknown
+     */
+    GHPermissionType get(Job<?, ?> job) throws IOException {
+        String key = GithubHelper.getRepositoryKey(job);
+        CompletableFuture<GHPermissionType> lookup = lookups.get(key == null ? job.getFullName() : key);
+        if (lookup == null) {
+            start(job);
+            lookup = lookups.get(key == null ? job.getFullName() : key);
+        }
+        try {
+            return lookup.get(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Permission lookup for " + author + " on job " + job.getFullName() +
+                    " missed the event deadline", e);
+        } catch (ExecutionException e) {
+            LOGGER.log(Level.FINE, "Permission lookup failed for " + author + " on job " + job.getFullName(), e);
+            throw e.getCause() instanceof UncheckedIOException io ? io.getCause() : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while looking up permissions", e);
+        }
+    }
+
+    private GHPermissionType fetch(Job<?, ?> job) {
+        try {
+            return GithubHelper.getPermission(job, author);
+        } catch (final IllegalArgumentException e) {
+            LOGGER.log(Level.FINE, String.format(
+                    "Received an exception while trying to check if user %s is a collaborator for repo of job %s",
+                    author, job.getFullName()), e);
+            return null;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
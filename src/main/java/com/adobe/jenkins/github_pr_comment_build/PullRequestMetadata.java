@@ -0,0 +1,206 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.model.Job;
+import jenkins.util.SystemProperties;
+import net.sf.json.JSONObject;
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHPullRequest;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The pull request details missing from some event payloads, such as issue comments. They are kept for a short
+ * time, and concurrent lookups of the same pull request share a single GitHub request, so a burst of events and
+ * jobs evaluating a pull request fetches it at most once. Pull request webhooks refresh them as they arrive.
+ */
+final class PullRequestMetadata {
+    /**
+     * How long metadata is reused before being fetched again.
+     */
+    private static final long TTL_MILLIS =
+            SystemProperties.getLong(PullRequestMetadata.class.getName() + ".ttlMillis", 30_000L);
+    /**
+     * Maximum number of pull requests kept.
+     */
+    private static final int MAX_ENTRIES = 1024;
+    private static final Map<String, Entry> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final String headSha;
+    private final String baseRef;
+    private final boolean draft;
+    private final boolean open;
+
+    private PullRequestMetadata(String headSha, String baseRef, boolean draft, boolean open) {
+        this.headSha = headSha;
+        this.baseRef = baseRef;
+        this.draft = draft;
+        this.open = open;
+    }
+
+    /**
+     * Extracts the metadata of a pull request retrieved from GitHub.
+     * @param pullRequest the pull request
+     * @return the metadata
+     * @throws IOException if the pull request details could not be retrieved
+     */
+    static PullRequestMetadata of(GHPullRequest pullRequest) throws IOException {
+        return new PullRequestMetadata(pullRequest.getHead().getSha(), pullRequest.getBase().getRef(),
+                pullRequest.isDraft(), pullRequest.getState() == GHIssueState.OPEN);
+    }
+
+    /**
+     * Extracts the metadata of a pull request from its JSON representation in a webhook payload.
+     * @param pullRequest the pull request
+     * @return the metadata
+     */
+    static PullRequestMetadata of(JSONObject pullRequest) {
+        JSONObject head = pullRequest.optJSONObject("head");
+        JSONObject base = pullRequest.optJSONObject("base");
+        return new PullRequestMetadata(head == null ? null : head.optString("sha", null),
+                base == null ? null : base.optString("ref", null), pullRequest.optBoolean("draft"),
+                "open".equals(pullRequest.optString("state")));
+    }
+
+    /**
+     * Computes the key of a pull request.
+     * @param host the GitHub host
+     * @param owner the repository owner
+     * @param repository the repository name
+     * @param number the pull request number
+     * @return the key
+     */
+    static String key(String host, String owner, String repository, int number) {
+        return (host + "/" + TriggerIndex.key(owner, repository, number)).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Stores up-to-date metadata, such as received from a webhook.
+     * @param key the key of the pull request
+     * @param metadata the metadata
+     */
+    static void put(String key, PullRequestMetadata metadata) {
+        synchronized (CACHE) {
+            CACHE.put(key, new Entry(CompletableFuture.completedFuture(metadata), System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Retrieves metadata that is still fresh, without any GitHub request.
+     * @param key the key of the pull request
+     * @return the metadata, or null if it is not known or outdated
+     */
+    static PullRequestMetadata getCached(String key) {
+        CompletableFuture<PullRequestMetadata> future;
+        synchronized (CACHE) {
+            Entry entry = CACHE.get(key);
+            if (entry == null || !entry.isFresh(System.currentTimeMillis())) {
+                return null;
+            }
+            future = entry.future;
+        }
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    /**
+     * Retrieves the metadata of a pull request, from GitHub if it is not known or outdated. Concurrent calls for
+     * the same pull request wait for the same GitHub request, which runs off the calling thread.
+     * @param key the key of the pull request
+     * @param job a job of the pull request, giving the repository and credentials to use
+     * @param number the pull request number
+     * @param deadlineNanos the {@link System#nanoTime()} after which the GitHub request is no longer waited for
+     * @return the metadata, or null if the job has no GitHub repository
+     * @throws IOException if the pull request could not be retrieved in time
+     */
+    static PullRequestMetadata get(String key, Job<?, ?> job, int number, long deadlineNanos) throws IOException {
+        long now = System.currentTimeMillis();
+        CompletableFuture<PullRequestMetadata> future;
+        Entry fetched = null;
+        synchronized (CACHE) {
+            Entry entry = CACHE.get(key);
+            if (entry != null && entry.isFresh(now)) {
+                future = entry.future;
+            } else {
+                future = new CompletableFuture<>();
+                fetched = new Entry(future, now);
+                CACHE.put(key, fetched);
+            }
+        }
+        if (fetched != null) {
+            Entry entry = fetched;
+            GitHubRequests.EXECUTOR.execute(() -> fetch(key, entry, job, number));
+        }
+        try {
+            return future.get(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new IOException("Pull request " + key + " could not be retrieved before the event deadline", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while retrieving pull request " + key, e);
+        }
+    }
+
+    private static void fetch(String key, Entry entry, Job<?, ?> job, int number) {
+        try {
+            GHPullRequest pullRequest = GithubHelper.getPullRequest(job, number);
+            entry.future.complete(pullRequest == null ? null : of(pullRequest));
+        } catch (IOException | RuntimeException e) {
+            entry.future.completeExceptionally(e);
+            synchronized (CACHE) {
+                // Let the next lookup try again
+                CACHE.remove(key, entry);
+            }
+        }
+    }
+
+    /**
+     * SHA of the head commit of the pull request.
+     * @return the commit hash, may be null if unknown
+     */
+    String getHeadSha() {
+        return headSha;
+    }
+
+    /**
+     * Name of the branch the pull request targets.
+     * @return the branch name, may be null if unknown
+     */
+    String getBaseRef() {
+        return baseRef;
+    }
+
+    boolean isDraft() {
+        return draft;
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<PullRequestMetadata> future;
+        private final long retrieved;
+
+        private Entry(CompletableFuture<PullRequestMetadata> future, long retrieved) {
+            this.future = future;
+            this.retrieved = retrieved;
+        }
+
+        private boolean isFresh(long now) {
+            return now - retrieved < TTL_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import com.cloudbees.jenkins.GitHubRepositoryName;
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.Job;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.SCMSourceOwner;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.github.extension.GHEventsSubscriber;
+import org.jenkinsci.plugins.github_branch_source.GitHubSCMSource;
+import org.kohsuke.github.GHEvent;
+
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.collect.Sets.immutableEnumSet;
+import static org.kohsuke.github.GHEvent.PULL_REQUEST;
+
+/**
+ * This subscriber refreshes the {@link PullRequestMetadata} of pull requests from all {@link GHEvent} PULL_REQUEST
+ * events, so that triggers needing it do not ask GitHub for it.
+ */
+@Extension
+public class PullRequestMetadataGHEventSubscriber extends GHEventsSubscriber {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(PullRequestMetadataGHEventSubscriber.class.getName());
+
+    @Override
+    protected boolean isApplicable(Item item) {
+        if (item instanceof Job<?, ?> project && project.getParent() instanceof SCMSourceOwner owner) {
+            for (SCMSource source : owner.getSCMSources()) {
+                if (source instanceof GitHubSCMSource) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected Set<GHEvent> events() {
+        return immutableEnumSet(PULL_REQUEST);
+    }
+
+    /**
+     * Stores the metadata of the pull request of the event.
+     * @param event only PULL_REQUEST events
+     * @param payload payload of gh-event. Never blank
+     */
+    @Override
+    protected void onEvent(GHEvent event, String payload) {
+        JSONObject json = JSONObject.fromObject(payload);
+        JSONObject pullRequest = json.optJSONObject("pull_request");
+        JSONObject repository = json.optJSONObject("repository");
+        if (pullRequest == null || repository == null || !pullRequest.has("number")) {
+            return;
+        }
+        GitHubRepositoryName repositoryName = GitHubRepositoryName.create(repository.optString("html_url"));
+        if (repositoryName == null) {
+            return;
+        }
+        String key = PullRequestMetadata.key(repositoryName.getHost(), repositoryName.getUserName(),
+                repositoryName.getRepositoryName(), pullRequest.getInt("number"));
+        PullRequestMetadata.put(key, PullRequestMetadata.of(pullRequest));
+        LOGGER.log(Level.FINER, "Refreshed metadata of {0} from {1} event", new Object[] { key, json.optString("action") });
+    }
+}
@@ -0,0 +1,145 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.Extension;
+import hudson.model.Cause;
+import hudson.model.Queue;
+import hudson.model.queue.QueueListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures how long items wait in the queue before starting, by the type of their first cause, to compare the
+ * latency of builds triggered by this plugin with the other builds.
+ */
+@Extension
+public class QueueWaitStats extends QueueListener {
+    /**
+     * Maximum number of cause types measured, further types being accounted as {@link #OTHER}.
+     */
+    private static final int MAX_TYPES = 64;
+    /**
+     * Type of the items whose cause types exceed {@link #MAX_TYPES}.
+     */
+    private static final String OTHER = "Other";
+    /**
+     * Number of recent waits kept per cause type to compute percentiles.
+     */
+    private static final int SAMPLES = 256;
+    private static final Map<String, Stats> STATS = new ConcurrentHashMap<>();
+
+    /**
+     * Whether an item was triggered by this plugin.
+     * @param item the queue item
+     * @return if one of its causes comes from a pull request trigger
+     */
+    static boolean isTriggered(Queue.Item item) {
+        for (Cause cause : item.getCauses()) {
+            if (isTriggerCause(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTriggerCause(Cause cause) {
+        return cause instanceof GitHubPullRequestCommentCause || cause instanceof GitHubPullRequestLabelCause ||
+                cause instanceof GitHubPullRequestReviewCause || cause instanceof GitHubPullRequestUpdateCause ||
+                cause instanceof GitHubPullRequestCheckRunCause;
+    }
+
+    /**
+     * Computes the type an item is measured under: its first cause from this plugin, or else its first cause.
+     * @param item the queue item
+     * @return the simple class name of the cause
+     */
+    private static String getCauseType(Queue.Item item) {
+        List<Cause> causes = item.getCauses();
+        for (Cause cause : causes) {
+            if (isTriggerCause(cause)) {
+                return cause.getClass().getSimpleName();
+            }
+        }
+        return causes.isEmpty() ? "None" : causes.get(0).getClass().getSimpleName();
+    }
+
+    @Override
+    public void onLeft(Queue.LeftItem li) {
+        if (li.isCancelled()) {
+            return;
+        }
+        long wait = System.currentTimeMillis() - li.getInQueueSince();
+        String type = getCauseType(li);
+        Stats stats = STATS.get(type);
+        if (stats == null) {
+            stats = STATS.computeIfAbsent(STATS.size() < MAX_TYPES ? type : OTHER, k -> new Stats());
+        }
+        stats.add(Math.max(0L, wait));
+    }
+
+    /**
+     * Lists the queue wait statistics since startup.
+     * @return the statistics by cause type
+     */
+    static Map<String, Stats> getStats() {
+        return new TreeMap<>(STATS);
+    }
+
+    /**
+     * Queue wait statistics of a cause type.
+     */
+    public static final class Stats {
+        private final long[] samples = new long[SAMPLES];
+        private long count;
+        private long totalMillis;
+        private long maxMillis;
+
+        private synchronized void add(long millis) {
+            samples[(int) (count % SAMPLES)] = millis;
+            count++;
+            totalMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getMeanMillis() {
+            return count == 0 ? 0 : totalMillis / count;
+        }
+
+        public synchronized long getMaxMillis() {
+            return maxMillis;
+        }
+
+        /**
+         * Median wait of the recent items.
+         * @return the wait in milliseconds
+         */
+        public long getMedianMillis() {
+            return getPercentile(50);
+        }
+
+        /**
+         * 95th percentile wait of the recent items.
+         * @return the wait in milliseconds
+         */
+        public long getP95Millis() {
+            return getPercentile(95);
+        }
+
+        private synchronized long getPercentile(int percentile) {
+            int size = (int) Math.min(count, SAMPLES);
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            return sorted[Math.min(size - 1, size * percentile / 100)];
+        }
+    }
+}
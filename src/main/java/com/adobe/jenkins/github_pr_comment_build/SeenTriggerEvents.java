@@ -0,0 +1,91 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded record of the trigger events recently handled, shared by live webhooks and the catch-up poller so that
+ * an event is not handled twice.
+ */
+final class SeenTriggerEvents {
+    private static final int MAX_EVENTS = 10_000;
+    private static final long RETENTION_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final Map<String, Long> EVENTS = new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_EVENTS || eldest.getValue() < System.currentTimeMillis() - RETENTION_MILLIS;
+        }
+    };
+
+    private SeenTriggerEvents() {
+        // private
+    }
+
+    /**
+     * Records that an event has been handled.
+     * @param key the key of the event
+     */
+    static void record(String key) {
+        synchronized (EVENTS) {
+            EVENTS.remove(key);
+            EVENTS.put(key, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Checks whether an event has been handled recently.
+     * @param key the key of the event
+     * @return if it has been handled
+     */
+    static boolean contains(String key) {
+        synchronized (EVENTS) {
+            Long seen = EVENTS.get(key);
+            return seen != null && seen >= System.currentTimeMillis() - RETENTION_MILLIS;
+        }
+    }
+
+    /**
+     * Checks whether an event has been handled since a given time, for events whose key does not tell their
+     * occurrences apart.
+     * @param key the key of the event
+     * @param sinceMillis the time of the occurrence, in epoch milliseconds
+     * @return if it has been handled at or after that time
+     */
+    static boolean containsSince(String key, long sinceMillis) {
+        synchronized (EVENTS) {
+            Long seen = EVENTS.get(key);
+            return seen != null && seen >= Math.max(sinceMillis, System.currentTimeMillis() - RETENTION_MILLIS);
+        }
+    }
+
+    /**
+     * Key of a comment event.
+     * @param commentId the comment id
+     * @param updatedAtMillis when the comment was last created or edited
+     * @return the key
+     */
+    static String commentKey(long commentId, long updatedAtMillis) {
+        return "comment:" + commentId + ":" + TimeUnit.MILLISECONDS.toSeconds(updatedAtMillis);
+    }
+
+    /**
+     * Key of a label event, the same for all the times a label is added, see {@link #containsSince(String, long)}.
+     * @param pullRequestKey the pull request key
+     * @param label the label name
+     * @return the key
+     */
+    static String labelKey(String pullRequestKey, String label) {
+        return "label:" + pullRequestKey + ":" + label;
+    }
+
+    /**
+     * Key of a review event.
+     * @param reviewId the review id
+     * @return the key
+     */
+    static String reviewKey(long reviewId) {
+        return "review:" + reviewId;
+    }
+}
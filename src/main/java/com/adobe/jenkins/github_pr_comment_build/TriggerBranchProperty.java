@@ -12,6 +12,27 @@ import org.kohsuke.stapler.DataBoundSetter;
 abstract public class TriggerBranchProperty extends BranchProperty {
     protected boolean allowUntrusted;
     protected String minimumPermissions;
+    protected boolean skipBuildingRevision;
+    protected boolean skipBuiltRevision;
+    protected String unavailablePermissionsPolicy;
+    protected String trustedAuthors;
+    protected String deniedAuthors;
+    private transient AuthorList trustedAuthorList;
+    private transient AuthorList deniedAuthorList;
+
+    /**
+     * What happens to a trigger requiring permissions that cannot be retrieved from GitHub in time.
+     */
+    public enum UnavailablePermissionsPolicy {
+        /**
+         * The trigger is dropped.
+         */
+        DENY,
+        /**
+         * The permissions are checked again later, and the job started if they allow it.
+         */
+        RECHECK
+    }
 
     @Deprecated
     public boolean isAllowUntrusted() {
@@ -36,6 +57,87 @@ abstract public class TriggerBranchProperty extends BranchProperty {
         return minimumPermissions;
     }
 
+    public String getUnavailablePermissionsPolicy() {
+        if (unavailablePermissionsPolicy == null || unavailablePermissionsPolicy.isEmpty()) {
+            return UnavailablePermissionsPolicy.DENY.name();
+        }
+        return unavailablePermissionsPolicy;
+    }
+
+    @DataBoundSetter
+    public void setUnavailablePermissionsPolicy(String unavailablePermissionsPolicy) {
+        this.unavailablePermissionsPolicy = unavailablePermissionsPolicy;
+    }
+
+    public String getTrustedAuthors() {
+        return trustedAuthors;
+    }
+
+    /**
+     * Sets the GitHub logins and login patterns triggering the build without checking their permissions.
+     * @param trustedAuthors the entries, separated by whitespace or commas
+     */
+    @DataBoundSetter
+    public void setTrustedAuthors(String trustedAuthors) {
+        this.trustedAuthors = trustedAuthors;
+        this.trustedAuthorList = null;
+    }
+
+    public String getDeniedAuthors() {
+        return deniedAuthors;
+    }
+
+    /**
+     * Sets the GitHub logins and login patterns never triggering the build.
+     * @param deniedAuthors the entries, separated by whitespace or commas
+     */
+    @DataBoundSetter
+    public void setDeniedAuthors(String deniedAuthors) {
+        this.deniedAuthors = deniedAuthors;
+        this.deniedAuthorList = null;
+    }
+
+    AuthorList getTrustedAuthorList() {
+        if (trustedAuthorList == null) {
+            trustedAuthorList = AuthorList.parse(trustedAuthors);
+        }
+        return trustedAuthorList;
+    }
+
+    AuthorList getDeniedAuthorList() {
+        if (deniedAuthorList == null) {
+            deniedAuthorList = AuthorList.parse(deniedAuthors);
+        }
+        return deniedAuthorList;
+    }
+
+    public boolean isSkipBuildingRevision() {
+        return skipBuildingRevision;
+    }
+
+    /**
+     * Sets whether triggers are dropped while a build of the current pull request revision is queued or running.
+     * @param skipBuildingRevision true to drop such triggers
+     */
+    @DataBoundSetter
+    public void setSkipBuildingRevision(boolean skipBuildingRevision) {
+        this.skipBuildingRevision = skipBuildingRevision;
+    }
+
+    public boolean isSkipBuiltRevision() {
+        return skipBuiltRevision;
+    }
+
+    /**
+     * Sets whether triggers are dropped when the last completed build was a successful build of the current pull
+     * request revision.
+     * @param skipBuiltRevision true to drop such triggers
+     */
+    @DataBoundSetter
+    public void setSkipBuiltRevision(boolean skipBuiltRevision) {
+        this.skipBuiltRevision = skipBuiltRevision;
+    }
+
     @Override
     public <P extends Job<P, B>, B extends Run<P, B>> JobDecorator<P, B> jobDecorator(Class<P> clazz) {
         return null;
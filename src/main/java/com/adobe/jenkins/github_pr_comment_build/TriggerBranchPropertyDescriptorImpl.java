@@ -25,4 +25,21 @@ abstract public class TriggerBranchPropertyDescriptorImpl extends BranchProperty
         return result;
     }
 
+    /**
+     * Populates the options for permissions that cannot be retrieved from GitHub.
+     *
+     * @return the unavailable permissions policy options.
+     */
+    @NonNull
+    @Restricted(NoExternalUse.class)
+    @SuppressWarnings("unused") // stapler
+    public ListBoxModel doFillUnavailablePermissionsPolicyItems() {
+        ListBoxModel result = new ListBoxModel();
+        result.add("Do not trigger the build",
+                TriggerBranchProperty.UnavailablePermissionsPolicy.DENY.name());
+        result.add("Check the permissions again later",
+                TriggerBranchProperty.UnavailablePermissionsPolicy.RECHECK.name());
+        return result;
+    }
+
 }
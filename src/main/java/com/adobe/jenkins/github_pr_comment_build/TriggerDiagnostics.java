@@ -0,0 +1,121 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import hudson.util.HttpResponses;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.verb.GET;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management page showing how recent GitHub events were handled, to find out why an event did not trigger a build.
+ */
+@Extension
+public class TriggerDiagnostics extends ManagementLink {
+
+    @Override
+    public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.TriggerDiagnostics_display_name();
+    }
+
+    @Override
+    public String getDescription() {
+        return Messages.TriggerDiagnostics_description();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "github-pr-triggers";
+    }
+
+    @Override
+    public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    /**
+     * Lists the decision traces of recent events.
+     * @return the traces, most recent first
+     */
+    public List<DecisionTrace> getTraces() {
+        return DecisionTrace.getRecent();
+    }
+
+    /**
+     * Number of triggers refused by the per pull request limit since startup.
+     * @return the count
+     */
+    public long getThrottledByPullRequest() {
+        return TriggerThrottle.PULL_REQUESTS.getThrottledCount();
+    }
+
+    /**
+     * Number of triggers refused by the per author limit since startup.
+     * @return the count
+     */
+    public long getThrottledByAuthor() {
+        return TriggerThrottle.AUTHORS.getThrottledCount();
+    }
+
+    /**
+     * Lists the GitHub endpoints whose requests are suspended by their circuit breaker.
+     * @return the time each breaker opened by endpoint
+     */
+    public Map<String, Date> getOpenCircuitBreakers() {
+        Map<String, Date> result = new LinkedHashMap<>();
+        GitHubCircuitBreaker.getOpenEndpoints().forEach(
+                (endpoint, openedAt) -> result.put(endpoint, new Date(openedAt)));
+        return result;
+    }
+
+    /**
+     * Lists the queue wait statistics by cause type since startup.
+     * @return the statistics by cause type
+     */
+    public Map<String, QueueWaitStats.Stats> getQueueWaitStats() {
+        return QueueWaitStats.getStats();
+    }
+
+    /**
+     * Serves the decision traces of recent events as JSON.
+     * @return the response
+     */
+    @GET
+    public HttpResponse doJson() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        JSONArray traces = new JSONArray();
+        for (DecisionTrace trace : getTraces()) {
+            traces.add(trace.toJSON());
+        }
+        return HttpResponses.okJSON(traces);
+    }
+
+    /**
+     * Serves the queue wait statistics by cause type as JSON.
+     * @return the response
+     */
+    @GET
+    public HttpResponse doQueueJson() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        JSONObject stats = new JSONObject();
+        getQueueWaitStats().forEach((type, typeStats) -> stats.put(type, new JSONObject()
+                .element("count", typeStats.getCount())
+                .element("meanMillis", typeStats.getMeanMillis())
+                .element("medianMillis", typeStats.getMedianMillis())
+                .element("p95Millis", typeStats.getP95Millis())
+                .element("maxMillis", typeStats.getMaxMillis())));
+        return HttpResponses.okJSON(stats);
+    }
+}
@@ -0,0 +1,358 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.util.ListBoxModel;
+import jenkins.model.GlobalConfiguration;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Controller-wide settings of the pull request triggers.
+ */
+@Extension
+@Symbol("githubPrCommentBuild")
+public class TriggerGlobalConfiguration extends GlobalConfiguration {
+    /**
+     * Maximum number of comment body characters stored in build causes, 0 for no limit.
+     */
+    private int maxStoredCommentBodyLength;
+    /**
+     * Number of triggering events on a single pull request per period, 0 for no limit.
+     */
+    private int pullRequestTriggerLimit;
+    /**
+     * Number of triggering events of a single author per period, 0 for no limit.
+     */
+    private int authorTriggerLimit;
+    /**
+     * Period in which the trigger limits apply.
+     */
+    private int triggerLimitPeriodMinutes = 60;
+    /**
+     * Whether to react to comments refused by the trigger limits.
+     */
+    private boolean reactToThrottledComments;
+    /**
+     * Whether to poll pull requests for trigger events missed while webhooks were not delivered.
+     */
+    private boolean catchUpPolling;
+    /**
+     * Interval between two polls for missed trigger events.
+     */
+    private int catchUpPollingIntervalMinutes = 15;
+    /**
+     * Number of builds of a single event started at once, 0 for no limit.
+     */
+    private int fanOutConcurrency;
+    /**
+     * Window over which the builds of a single event are spread.
+     */
+    private int fanOutWindowSeconds = 60;
+    /**
+     * GitHub logins and login patterns triggering builds without checking their permissions.
+     */
+    private String trustedAuthors;
+    /**
+     * GitHub logins and login patterns never triggering builds.
+     */
+    private String deniedAuthors;
+    /**
+     * Whether queued builds triggered by pull request events go before the other builds.
+     */
+    private boolean prioritizeTriggeredBuilds;
+    /**
+     * How long other builds wait at most before going back before triggered builds.
+     */
+    private int prioritizationStarvationMinutes = 10;
+    /**
+     * Excess of buildable queue items over idle executors from which triggered builds are not admitted right away,
+     * 0 to admit all builds.
+     */
+    private int admissionQueueThreshold;
+    /**
+     * What happens to triggered builds above the admission threshold.
+     */
+    private String admissionAction;
+    /**
+     * Quiet period added to deferred builds.
+     */
+    private int admissionDeferSeconds = 300;
+    private transient AuthorList trustedAuthorList;
+    private transient AuthorList deniedAuthorList;
+
+    /**
+     * Constructor.
+     */
+    public TriggerGlobalConfiguration() {
+        load();
+    }
+
+    /**
+     * Retrieves the singleton instance.
+     * @return the configuration
+     */
+    public static TriggerGlobalConfiguration get() {
+        return ExtensionList.lookupSingleton(TriggerGlobalConfiguration.class);
+    }
+
+    /**
+     * Maximum number of comment body characters stored in build causes.
+     * @return the maximum length, 0 for no limit
+     */
+    public int getMaxStoredCommentBodyLength() {
+        return maxStoredCommentBodyLength;
+    }
+
+    @DataBoundSetter
+    public void setMaxStoredCommentBodyLength(int maxStoredCommentBodyLength) {
+        this.maxStoredCommentBodyLength = Math.max(0, maxStoredCommentBodyLength);
+        save();
+    }
+
+    /**
+     * Number of triggering events on a single pull request per period.
+     * @return the limit, 0 for no limit
+     */
+    public int getPullRequestTriggerLimit() {
+        return pullRequestTriggerLimit;
+    }
+
+    @DataBoundSetter
+    public void setPullRequestTriggerLimit(int pullRequestTriggerLimit) {
+        this.pullRequestTriggerLimit = Math.max(0, pullRequestTriggerLimit);
+        save();
+    }
+
+    /**
+     * Number of triggering events of a single author per period.
+     * @return the limit, 0 for no limit
+     */
+    public int getAuthorTriggerLimit() {
+        return authorTriggerLimit;
+    }
+
+    @DataBoundSetter
+    public void setAuthorTriggerLimit(int authorTriggerLimit) {
+        this.authorTriggerLimit = Math.max(0, authorTriggerLimit);
+        save();
+    }
+
+    /**
+     * Period in which the trigger limits apply, over which the allowed triggers are gradually restored.
+     * @return the period in minutes
+     */
+    public int getTriggerLimitPeriodMinutes() {
+        return triggerLimitPeriodMinutes;
+    }
+
+    @DataBoundSetter
+    public void setTriggerLimitPeriodMinutes(int triggerLimitPeriodMinutes) {
+        this.triggerLimitPeriodMinutes = Math.max(1, triggerLimitPeriodMinutes);
+        save();
+    }
+
+    /**
+     * Whether to react to comments refused by the trigger limits.
+     * @return if a reaction should be added
+     */
+    public boolean isReactToThrottledComments() {
+        return reactToThrottledComments;
+    }
+
+    @DataBoundSetter
+    public void setReactToThrottledComments(boolean reactToThrottledComments) {
+        this.reactToThrottledComments = reactToThrottledComments;
+        save();
+    }
+
+    /**
+     * Whether to poll pull requests for trigger events missed while webhooks were not delivered.
+     * @return if polling is enabled
+     */
+    public boolean isCatchUpPolling() {
+        return catchUpPolling;
+    }
+
+    @DataBoundSetter
+    public void setCatchUpPolling(boolean catchUpPolling) {
+        this.catchUpPolling = catchUpPolling;
+        save();
+    }
+
+    /**
+     * Interval between two polls for missed trigger events.
+     * @return the interval in minutes
+     */
+    public int getCatchUpPollingIntervalMinutes() {
+        return catchUpPollingIntervalMinutes;
+    }
+
+    @DataBoundSetter
+    public void setCatchUpPollingIntervalMinutes(int catchUpPollingIntervalMinutes) {
+        this.catchUpPollingIntervalMinutes = Math.max(1, catchUpPollingIntervalMinutes);
+        save();
+    }
+
+    /**
+     * Number of builds of a single event started at once, the others being spread over the fan-out window.
+     * @return the number of builds, 0 for no limit
+     */
+    public int getFanOutConcurrency() {
+        return fanOutConcurrency;
+    }
+
+    @DataBoundSetter
+    public void setFanOutConcurrency(int fanOutConcurrency) {
+        this.fanOutConcurrency = Math.max(0, fanOutConcurrency);
+        save();
+    }
+
+    /**
+     * Window over which the builds of a single event exceeding the fan-out concurrency are spread.
+     * @return the window in seconds
+     */
+    public int getFanOutWindowSeconds() {
+        return fanOutWindowSeconds;
+    }
+
+    @DataBoundSetter
+    public void setFanOutWindowSeconds(int fanOutWindowSeconds) {
+        this.fanOutWindowSeconds = Math.max(1, fanOutWindowSeconds);
+        save();
+    }
+
+    /**
+     * GitHub logins and login patterns triggering builds of all jobs without checking their permissions.
+     * @return the entries, separated by whitespace or commas
+     */
+    public String getTrustedAuthors() {
+        return trustedAuthors;
+    }
+
+    @DataBoundSetter
+    public void setTrustedAuthors(String trustedAuthors) {
+        this.trustedAuthors = trustedAuthors;
+        this.trustedAuthorList = null;
+        save();
+    }
+
+    /**
+     * GitHub logins and login patterns never triggering builds.
+     * @return the entries, separated by whitespace or commas
+     */
+    public String getDeniedAuthors() {
+        return deniedAuthors;
+    }
+
+    @DataBoundSetter
+    public void setDeniedAuthors(String deniedAuthors) {
+        this.deniedAuthors = deniedAuthors;
+        this.deniedAuthorList = null;
+        save();
+    }
+
+    AuthorList getTrustedAuthorList() {
+        AuthorList list = trustedAuthorList;
+        if (list == null) {
+            list = trustedAuthorList = AuthorList.parse(trustedAuthors);
+        }
+        return list;
+    }
+
+    AuthorList getDeniedAuthorList() {
+        AuthorList list = deniedAuthorList;
+        if (list == null) {
+            list = deniedAuthorList = AuthorList.parse(deniedAuthors);
+        }
+        return list;
+    }
+
+    /**
+     * Whether queued builds triggered by pull request events go before the other builds.
+     * @return if triggered builds are prioritized
+     */
+    public boolean isPrioritizeTriggeredBuilds() {
+        return prioritizeTriggeredBuilds;
+    }
+
+    @DataBoundSetter
+    public void setPrioritizeTriggeredBuilds(boolean prioritizeTriggeredBuilds) {
+        this.prioritizeTriggeredBuilds = prioritizeTriggeredBuilds;
+        save();
+    }
+
+    /**
+     * How long other queued builds may wait before taking precedence over triggered builds again.
+     * @return the period in minutes
+     */
+    public int getPrioritizationStarvationMinutes() {
+        return prioritizationStarvationMinutes;
+    }
+
+    @DataBoundSetter
+    public void setPrioritizationStarvationMinutes(int prioritizationStarvationMinutes) {
+        this.prioritizationStarvationMinutes = Math.max(1, prioritizationStarvationMinutes);
+        save();
+    }
+
+    /**
+     * Excess of buildable queue items over idle executors from which triggered builds are not admitted right away.
+     * @return the threshold, 0 to admit all builds
+     */
+    public int getAdmissionQueueThreshold() {
+        return admissionQueueThreshold;
+    }
+
+    @DataBoundSetter
+    public void setAdmissionQueueThreshold(int admissionQueueThreshold) {
+        this.admissionQueueThreshold = Math.max(0, admissionQueueThreshold);
+        save();
+    }
+
+    /**
+     * What happens to triggered builds above the admission threshold.
+     * @return the name of the action
+     */
+    public String getAdmissionAction() {
+        return AdmissionControl.Action.parse(admissionAction).name();
+    }
+
+    @DataBoundSetter
+    public void setAdmissionAction(String admissionAction) {
+        this.admissionAction = admissionAction;
+        save();
+    }
+
+    /**
+     * Quiet period added to the triggered builds deferred above the admission threshold.
+     * @return the quiet period in seconds
+     */
+    public int getAdmissionDeferSeconds() {
+        return admissionDeferSeconds;
+    }
+
+    @DataBoundSetter
+    public void setAdmissionDeferSeconds(int admissionDeferSeconds) {
+        this.admissionDeferSeconds = Math.max(0, admissionDeferSeconds);
+        save();
+    }
+
+    /**
+     * Populates the admission action options.
+     * @return the admission action options
+     */
+    @NonNull
+    @Restricted(NoExternalUse.class)
+    @SuppressWarnings("unused") // stapler
+    public ListBoxModel doFillAdmissionActionItems() {
+        ListBoxModel result = new ListBoxModel();
+        result.add("Defer the build", AdmissionControl.Action.DEFER.name());
+        result.add("Add the trigger to the queued build, or else defer the build", AdmissionControl.Action.MERGE.name());
+        result.add("Do not trigger the build", AdmissionControl.Action.REJECT.name());
+        return result;
+    }
+}
@@ -0,0 +1,363 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Job;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import jenkins.branch.MultiBranchProject;
+import jenkins.model.Jenkins;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.SCMSourceOwner;
+import jenkins.util.Timer;
+import org.jenkinsci.plugins.github_branch_source.GitHubSCMSource;
+import org.jenkinsci.plugins.github_branch_source.PullRequestSCMHead;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Index of pull request jobs by repository and pull request number, so that events do not need to walk every job of
+ * the controller. The index is persisted as a snapshot under JENKINS_HOME, which is used to serve events right after
+ * a restart while the index is rebuilt from the live items in the background.
+ */
+@Extension
+public class TriggerIndex extends ItemListener {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(TriggerIndex.class.getName());
+
+    /**
+     * Job full names by pull request key.
+     */
+    private volatile Map<String, Set<String>> entries = new ConcurrentHashMap<>();
+    /**
+     * Entries being rebuilt from the live items, which also receive the changes notified meanwhile.
+     */
+    private Map<String, Set<String>> rebuilding;
+    /**
+     * Guards the replacement of the entries and {@link #rebuilding}.
+     */
+    private final Object lock = new Object();
+    /**
+     * Whether the entries have been built from the live items, as opposed to loaded from the snapshot.
+     */
+    private volatile boolean validated;
+    /**
+     * Whether the snapshot has been loaded or is known to be unusable.
+     */
+    private boolean loaded;
+    /**
+     * Whether the entries changed since the last snapshot.
+     */
+    private volatile boolean dirty;
+
+    /**
+     * Retrieves the singleton instance.
+     * @return the index
+     */
+    public static TriggerIndex get() {
+        return ExtensionList.lookupSingleton(TriggerIndex.class);
+    }
+
+    /**
+     * Computes the index key of a pull request.
+     * @param repoOwner the repository owner
+     * @param repository the repository name
+     * @param pullRequestId the pull request number
+     * @return the key
+     */
+    static String key(String repoOwner, String repository, int pullRequestId) {
+        return (repoOwner + "/" + repository + "#" + pullRequestId).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Computes the index key of a job.
+     * @param job the job
+     * @return the key, or null if the job is not a GitHub pull request job of a multibranch project
+     */
+    @CheckForNull
+    static String key(Job<?, ?> job) {
+        if (job.getParent() instanceof MultiBranchProject &&
+                SCMHead.HeadByItem.findHead(job) instanceof PullRequestSCMHead prHead &&
+                SCMSource.SourceByItem.findSource(job) instanceof GitHubSCMSource source) {
+            return key(source.getRepoOwner(), source.getRepository(), prHead.getNumber());
+        }
+        return null;
+    }
+
+    /**
+     * Looks up the jobs of a pull request. Callers must still verify each returned job, since entries loaded from the
+     * snapshot may be stale.
+     * @param repoOwner the repository owner
+     * @param repository the repository name
+     * @param pullRequestId the pull request number
+     * @return the jobs, or null if the index cannot answer and all jobs must be scanned instead
+     */
+    @CheckForNull
+    public Collection<Job<?, ?>> getJobs(String repoOwner, String repository, int pullRequestId) {
+        loadSnapshot();
+        boolean authoritative = validated;
+        Set<String> names = entries.get(key(repoOwner, repository, pullRequestId));
+        if (names == null || names.isEmpty()) {
+            return authoritative ? Collections.emptyList() : null;
+        }
+        List<Job<?, ?>> jobs = new ArrayList<>(names.size());
+        for (String name : names) {
+            Job<?, ?> job = Jenkins.get().getItemByFullName(name, Job.class);
+            if (job != null) {
+                jobs.add(job);
+            } else if (!authoritative) {
+                LOGGER.log(Level.FINE, "Job {0} from the trigger index snapshot no longer exists", name);
+                return null;
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Lists the indexed pull request keys along with their jobs.
+     * @return a copy of the index entries
+     */
+    Map<String, List<String>> getEntries() {
+        Map<String, List<String>> copy = new TreeMap<>();
+        entries.forEach((key, names) -> copy.put(key, new ArrayList<>(names)));
+        return copy;
+    }
+
+    /**
+     * Rebuilds the index from the live items and persists it.
+     */
+    void rebuild() {
+        long start = System.nanoTime();
+        Map<String, Set<String>> rebuilt = new ConcurrentHashMap<>();
+        synchronized (lock) {
+            // Jobs created during the scan are added to the rebuilt entries by the listener
+            rebuilding = rebuilt;
+        }
+        try (ACLContext ctx = ACL.as2(ACL.SYSTEM2)) {
+            for (Job<?, ?> job : Jenkins.get().allItems(Job.class)) {
+                String key = key(job);
+                if (key != null) {
+                    put(rebuilt, key, job.getFullName());
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                rebuilding = null;
+            }
+        }
+        synchronized (lock) {
+            entries = rebuilt;
+            validated = true;
+        }
+        dirty = true;
+        LOGGER.log(Level.FINE, "Rebuilt trigger index with {0} pull requests in {1} ms",
+                new Object[] { rebuilt.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) });
+        save();
+    }
+
+    private synchronized void loadSnapshot() {
+        if (loaded || validated) {
+            return;
+        }
+        loaded = true;
+        XmlFile file = getSnapshotFile();
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            Snapshot snapshot = (Snapshot) file.read();
+            if (snapshot.entries != null && !validated) {
+                Map<String, Set<String>> loadedEntries = new ConcurrentHashMap<>();
+                snapshot.entries.forEach((key, names) -> {
+                    Set<String> set = ConcurrentHashMap.newKeySet();
+                    set.addAll(names);
+                    loadedEntries.put(key, set);
+                });
+                synchronized (lock) {
+                    if (!validated) {
+                        // Keep the jobs created since startup
+                        entries.forEach((key, names) -> names.forEach(name -> put(loadedEntries, key, name)));
+                        entries = loadedEntries;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not load the trigger index snapshot, ignoring it", e);
+        }
+    }
+
+    /**
+     * Persists the index if it changed since the last snapshot.
+     */
+    synchronized void save() {
+        if (!dirty || !validated) {
+            return;
+        }
+        dirty = false;
+        Snapshot snapshot = new Snapshot();
+        snapshot.entries = getEntries();
+        try {
+            getSnapshotFile().write(snapshot);
+        } catch (IOException e) {
+            dirty = true;
+            LOGGER.log(Level.WARNING, "Could not save the trigger index snapshot", e);
+        }
+    }
+
+    private static XmlFile getSnapshotFile() {
+        return new XmlFile(Jenkins.XSTREAM2, new File(Jenkins.get().getRootDir(), TriggerIndex.class.getName() + ".xml"));
+    }
+
+    private static void put(Map<String, Set<String>> map, String key, String name) {
+        map.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(name);
+    }
+
+    /**
+     * Adds a job to the index.
+     * @param job the job
+     * @return the index entry of the job, or null if it is not indexed
+     */
+    private String add(Job<?, ?> job) {
+        String key = key(job);
+        if (key == null) {
+            return null;
+        }
+        String name = job.getFullName();
+        synchronized (lock) {
+            put(entries, key, name);
+            if (rebuilding != null) {
+                put(rebuilding, key, name);
+            }
+        }
+        dirty = true;
+        return key + " " + name;
+    }
+
+    /**
+     * Removes an item from the index. A removal racing with a rebuild may leave a stale entry, which callers ignore
+     * like stale snapshot entries.
+     * @param fullName the full name of the item
+     * @param descendants whether the descendants of the item are removed too
+     * @param kept the index entries to keep, as returned by {@link #add(Job)}
+     */
+    private void remove(String fullName, boolean descendants, Set<String> kept) {
+        String prefix = fullName + "/";
+        synchronized (lock) {
+            remove(entries, fullName, prefix, descendants, kept);
+            if (rebuilding != null) {
+                remove(rebuilding, fullName, prefix, descendants, kept);
+            }
+        }
+    }
+
+    private void remove(Map<String, Set<String>> map, String fullName, String prefix, boolean descendants,
+                        Set<String> kept) {
+        map.forEach((key, names) -> {
+            if (names.removeIf(name -> (name.equals(fullName) || descendants && name.startsWith(prefix)) &&
+                    !kept.contains(key + " " + name))) {
+                dirty = true;
+            }
+        });
+        map.values().removeIf(Set::isEmpty);
+    }
+
+    @Override
+    public void onLoaded() {
+        // Serve events from the snapshot while the live items are indexed
+        Timer.get().submit(this::rebuild);
+    }
+
+    @Override
+    public void onBeforeShutdown() {
+        // Jobs created since the last periodic snapshot would be missing from it after the restart
+        save();
+    }
+
+    @Override
+    public void onCreated(Item item) {
+        if (item instanceof Job<?, ?> job) {
+            add(job);
+        }
+    }
+
+    @Override
+    public void onUpdated(Item item) {
+        if (item instanceof SCMSourceOwner owner) {
+            // The sources of a multibranch project may point to another repository. The current jobs are added
+            // before the outdated entries are removed, so that events never see the project without its jobs.
+            Set<String> kept = new HashSet<>();
+            for (Job<?, ?> job : owner.getAllJobs()) {
+                String entry = add(job);
+                if (entry != null) {
+                    kept.add(entry);
+                }
+            }
+            remove(item.getFullName(), true, kept);
+        }
+    }
+
+    @Override
+    public void onDeleted(Item item) {
+        remove(item.getFullName(), item instanceof ItemGroup, Collections.emptySet());
+    }
+
+    @Override
+    public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+        // Also fired for every descendant of a moved folder
+        if (item instanceof Job<?, ?> job) {
+            add(job);
+            remove(oldFullName, false, Collections.emptySet());
+        }
+    }
+
+    /**
+     * Persisted form of the index.
+     */
+    private static final class Snapshot {
+        private Map<String, List<String>> entries;
+    }
+
+    /**
+     * Periodically persists the index snapshot.
+     */
+    @Extension
+    public static class SnapshotWork extends AsyncPeriodicWork {
+        public SnapshotWork() {
+            super("GitHub PR trigger index snapshot");
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.MINUTES.toMillis(5);
+        }
+
+        @Override
+        protected void execute(TaskListener listener) {
+            get().save();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.adobe.jenkins.github_pr_comment_build;
 
 import hudson.Extension;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 
 /**
  * Allows a GitHub pull request comment to trigger an immediate build based on a comment string.
@@ -15,6 +16,10 @@ public class TriggerPRCommentBranchProperty extends TriggerBranchProperty {
      * Whether to react to the comment if a build is successfully triggered.
      */
     private final boolean addReaction;
+    /**
+     * Whether an edit of a comment that already matched triggers a new build.
+     */
+    private boolean retriggerOnEdit;
 
     /**
      * Constructor.
@@ -46,6 +51,19 @@ public class TriggerPRCommentBranchProperty extends TriggerBranchProperty {
         return addReaction;
     }
 
+    /**
+     * Whether an edit of a comment that already matched triggers a new build.
+     * @return if edits of matching comments trigger builds
+     */
+    public boolean isRetriggerOnEdit() {
+        return retriggerOnEdit;
+    }
+
+    @DataBoundSetter
+    public void setRetriggerOnEdit(boolean retriggerOnEdit) {
+        this.retriggerOnEdit = retriggerOnEdit;
+    }
+
     @Extension
     public static class DescriptorImpl extends TriggerBranchPropertyDescriptorImpl {
 
@@ -0,0 +1,360 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import jenkins.util.SystemProperties;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches the user supplied trigger regular expressions against untrusted input. Compiled patterns are cached, and
+ * each match runs under a budget of character reads and time so that catastrophic backtracking cannot pin the
+ * webhook thread. A match exceeding its budget is logged and counts as a non-match.
+ */
+final class TriggerPatterns {
+    /**
+     * Logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(TriggerPatterns.class.getName());
+    /**
+     * Flags used for all trigger patterns.
+     */
+    private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.DOTALL;
+    /**
+     * Character reads allowed per input character, on top of {@link #BASE_STEPS}.
+     */
+    private static final long STEPS_PER_CHAR =
+            SystemProperties.getLong(TriggerPatterns.class.getName() + ".stepsPerChar", 1000L);
+    /**
+     * Character reads allowed for any input.
+     */
+    private static final long BASE_STEPS = 100_000L;
+    /**
+     * Maximum time spent on a single match.
+     */
+    private static final long TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            SystemProperties.getLong(TriggerPatterns.class.getName() + ".timeoutMillis", 200L));
+    /**
+     * Number of character reads between two checks of the clock.
+     */
+    private static final int CLOCK_INTERVAL = 4096;
+    /**
+     * Upper bound of the compiled pattern cache, which is cleared when reached.
+     */
+    private static final int MAX_CACHED_PATTERNS = 1024;
+
+    /**
+     * Shortest literal worth prefiltering on.
+     */
+    private static final int MIN_LITERAL_LENGTH = 2;
+    /**
+     * Longest literal kept, any substring of a required literal being required as well.
+     */
+    private static final int MAX_LITERAL_LENGTH = 32;
+
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+    /**
+     * Invalid regular expressions, reported once instead of being compiled again for each event.
+     */
+    private static final Set<String> INVALID = ConcurrentHashMap.newKeySet();
+    /**
+     * Required literals by regular expression, the empty string standing for none.
+     */
+    private static final Map<String, String> LITERALS = new ConcurrentHashMap<>();
+
+    private TriggerPatterns() {
+        // private
+    }
+
+    /**
+     * Checks whether the whole input matches a trigger regular expression.
+     * @param regex the case-insensitive, dot-all regular expression
+     * @param input the untrusted input
+     * @return whether the input matches, false if the regular expression is invalid or the budget was exceeded
+     */
+    static boolean matches(String regex, String input) {
+        Pattern pattern = compile(regex);
+        if (pattern == null) {
+            return false;
+        }
+        BudgetedCharSequence budgeted = new BudgetedCharSequence(input,
+                BASE_STEPS + STEPS_PER_CHAR * input.length(), System.nanoTime() + TIMEOUT_NANOS);
+        try {
+            return pattern.matcher(budgeted).matches();
+        } catch (BudgetExceededException e) {
+            LOGGER.log(Level.WARNING,
+                    "Matching trigger pattern {0} against {1} characters exceeded its budget after {2} reads, "
+                            + "treating it as a non-match",
+                    new Object[] { regex, input.length(), budgeted.steps });
+            return false;
+        }
+    }
+
+    private static Pattern compile(String regex) {
+        if (regex == null) {
+            return null;
+        }
+        Pattern pattern = PATTERNS.get(regex);
+        if (pattern != null || INVALID.contains(regex)) {
+            return pattern;
+        }
+        try {
+            pattern = Pattern.compile(regex, FLAGS);
+        } catch (PatternSyntaxException e) {
+            if (INVALID.size() >= MAX_CACHED_PATTERNS) {
+                INVALID.clear();
+            }
+            if (INVALID.add(regex)) {
+                LOGGER.log(Level.WARNING, "Invalid trigger pattern " + regex + ", it never matches", e);
+            }
+            return null;
+        }
+        if (PATTERNS.size() >= MAX_CACHED_PATTERNS) {
+            PATTERNS.clear();
+        }
+        PATTERNS.put(regex, pattern);
+        return pattern;
+    }
+
+    /**
+     * Extracts a literal that any input matching a trigger regular expression must contain, ignoring ASCII case.
+     * The extraction is conservative: it only considers characters outside of groups and character classes that
+     * are not made optional by a quantifier, and gives up on alternations and constructs it does not understand.
+     * @param regex the regular expression
+     * @return the lower case literal, or null if none could be extracted
+     */
+    static String requiredLiteral(String regex) {
+        if (regex == null) {
+            return null;
+        }
+        String literal = LITERALS.get(regex);
+        if (literal == null) {
+            literal = extractLiteral(regex);
+            if (LITERALS.size() >= MAX_CACHED_PATTERNS) {
+                LITERALS.clear();
+            }
+            LITERALS.put(regex, literal);
+        }
+        return literal.isEmpty() ? null : literal;
+    }
+
+    private static String extractLiteral(String regex) {
+        String best = "";
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        int length = regex.length();
+        for (int i = 0; i < length; i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (++i >= length) {
+                    return "";
+                }
+                char escaped = regex.charAt(i);
+                if (depth == 0 && escaped < 128 && !Character.isLetterOrDigit(escaped)) {
+                    current.append(escaped);
+                    continue;
+                }
+                if (escaped == 'Q') {
+                    // Quoted sections are not worth the complexity
+                    return "";
+                }
+                if (Character.isDigit(escaped) || "xuckN".indexOf(escaped) >= 0) {
+                    // Code points, control characters, octal values and back references are followed by arguments
+                    // that are not literal text
+                    return "";
+                }
+                best = longest(best, current);
+                continue;
+            }
+            if (c == '[') {
+                i = skipCharacterClass(regex, i);
+                if (i < 0) {
+                    return "";
+                }
+                best = longest(best, current);
+                continue;
+            }
+            if (c == '(') {
+                if (i + 1 < length && regex.charAt(i + 1) == '?' && hasUnsupportedFlag(regex, i + 2)) {
+                    // Whitespace is not literal in comments mode, and Unicode case folding matches non-ASCII input
+                    return "";
+                }
+                depth++;
+                best = longest(best, current);
+                continue;
+            }
+            if (c == ')') {
+                if (--depth < 0) {
+                    return "";
+                }
+                continue;
+            }
+            if (depth > 0) {
+                continue;
+            }
+            switch (c) {
+                case '|':
+                    return "";
+                case '*':
+                case '?':
+                case '{':
+                    // The previous character is optional
+                    if (current.length() > 0) {
+                        current.setLength(current.length() - 1);
+                    }
+                    best = longest(best, current);
+                    if (c == '{') {
+                        i = regex.indexOf('}', i);
+                        if (i < 0) {
+                            return "";
+                        }
+                    }
+                    i = skipQuantifierModifier(regex, i);
+                    break;
+                case '+':
+                    best = longest(best, current);
+                    i = skipQuantifierModifier(regex, i);
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                    best = longest(best, current);
+                    break;
+                default:
+                    if (c < 128) {
+                        current.append(c);
+                    } else {
+                        best = longest(best, current);
+                    }
+            }
+        }
+        best = longest(best, current);
+        if (best.length() < MIN_LITERAL_LENGTH) {
+            return "";
+        }
+        return toLowerAscii(best.length() > MAX_LITERAL_LENGTH ? best.substring(0, MAX_LITERAL_LENGTH) : best);
+    }
+
+    private static String longest(String best, StringBuilder current) {
+        String candidate = current.length() > best.length() ? current.toString() : best;
+        current.setLength(0);
+        return candidate;
+    }
+
+    private static int skipQuantifierModifier(String regex, int i) {
+        if (i + 1 < regex.length() && (regex.charAt(i + 1) == '?' || regex.charAt(i + 1) == '+')) {
+            return i + 1;
+        }
+        return i;
+    }
+
+    private static boolean hasUnsupportedFlag(String regex, int start) {
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == 'x' || c == 'u') {
+                return true;
+            }
+            if (!Character.isLetter(c) && c != '-') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the end of a character class.
+     * @param regex the regular expression
+     * @param start the index of the opening bracket
+     * @return the index of the closing bracket, or -1 for nested or unterminated classes
+     */
+    private static int skipCharacterClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        for (; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                return -1;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lower cases ASCII letters only, as done by case-insensitive matching without {@link Pattern#UNICODE_CASE}.
+     * @param c the character
+     * @return the lower case character
+     */
+    static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static String toLowerAscii(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = toLowerAscii(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Input wrapper counting the character reads of the regex engine.
+     */
+    private static final class BudgetedCharSequence implements CharSequence {
+        private final String value;
+        private final long maxSteps;
+        private final long deadline;
+        private long steps;
+
+        private BudgetedCharSequence(String value, long maxSteps, long deadline) {
+            this.value = value;
+            this.maxSteps = maxSteps;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++steps > maxSteps || steps % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                throw new BudgetExceededException();
+            }
+            return value.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return value.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    /**
+     * Thrown out of the regex engine when a match exceeds its budget.
+     */
+    private static final class BudgetExceededException extends RuntimeException {
+        private BudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+}
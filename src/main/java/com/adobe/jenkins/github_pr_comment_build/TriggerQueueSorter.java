@@ -0,0 +1,32 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import hudson.Extension;
+import hudson.model.Queue;
+import hudson.model.queue.QueueSorter;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optionally moves the buildable items triggered by this plugin, a developer waiting for them, ahead of the other
+ * items. Items that waited longer than the starvation period keep their place ahead of triggered items, so other
+ * builds are only delayed up to that period. Jenkins installs a single queue sorter, the first one by ordinal: the
+ * lowest ordinal lets the sorters of other plugins take precedence over this one.
+ */
+@Extension(ordinal = -1000)
+public class TriggerQueueSorter extends QueueSorter {
+
+    @Override
+    public void sortBuildableItems(List<Queue.BuildableItem> buildables) {
+        TriggerGlobalConfiguration config = TriggerGlobalConfiguration.get();
+        if (!config.isPrioritizeTriggeredBuilds()) {
+            return;
+        }
+        long starvedSince = System.currentTimeMillis() -
+                TimeUnit.MINUTES.toMillis(config.getPrioritizationStarvationMinutes());
+        // The sort is stable, items of the same rank keep their order
+        buildables.sort(Comparator.comparingInt(
+                item -> QueueWaitStats.isTriggered(item) || item.getInQueueSince() < starvedSince ? 0 : 1));
+    }
+}
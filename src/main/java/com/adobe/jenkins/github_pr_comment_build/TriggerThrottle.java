@@ -0,0 +1,96 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets limiting how often triggers are accepted per key. Buckets are held in a bounded, lock-striped
+ * structure, the least recently used buckets being evicted first.
+ */
+final class TriggerThrottle {
+    /**
+     * Throttle of the triggers for a pull request.
+     */
+    static final TriggerThrottle PULL_REQUESTS = new TriggerThrottle();
+    /**
+     * Throttle of the triggers by an author.
+     */
+    static final TriggerThrottle AUTHORS = new TriggerThrottle();
+
+    private static final int STRIPES = 16;
+    private static final int MAX_BUCKETS_PER_STRIPE = 512;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong throttled = new AtomicLong();
+
+    private TriggerThrottle() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes a token from the bucket of a key.
+     * @param key the key
+     * @param capacity the number of triggers allowed in a burst, and per period; 0 for no limit
+     * @param periodMillis the period in which the bucket fully refills
+     * @return whether the trigger is allowed
+     */
+    boolean tryAcquire(String key, int capacity, long periodMillis) {
+        if (capacity <= 0) {
+            return true;
+        }
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), STRIPES)];
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            Bucket bucket = stripe.computeIfAbsent(key, k -> new Bucket(capacity, now));
+            if (bucket.tryAcquire(capacity, periodMillis * 1_000_000L, now)) {
+                return true;
+            }
+        }
+        throttled.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Number of triggers refused since startup.
+     * @return the count
+     */
+    long getThrottledCount() {
+        return throttled.get();
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private Stripe() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > MAX_BUCKETS_PER_STRIPE;
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updated;
+
+        private Bucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.updated = now;
+        }
+
+        private boolean tryAcquire(int capacity, long periodNanos, long now) {
+            if (periodNanos > 0) {
+                tokens = Math.min(capacity, tokens + (double) (now - updated) * capacity / periodNanos);
+            }
+            updated = now;
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
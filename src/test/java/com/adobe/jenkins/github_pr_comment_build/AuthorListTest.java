@@ -0,0 +1,56 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuthorListTest {
+
+    @Test
+    void emptyLists() {
+        assertSame(AuthorList.EMPTY, AuthorList.parse(null));
+        assertSame(AuthorList.EMPTY, AuthorList.parse("  \n "));
+        assertTrue(AuthorList.EMPTY.isEmpty());
+        assertFalse(AuthorList.EMPTY.contains("octocat"));
+    }
+
+    @Test
+    void loginsIgnoreCase() {
+        AuthorList list = AuthorList.parse("Octocat");
+        assertFalse(list.isEmpty());
+        assertTrue(list.contains("octocat"));
+        assertTrue(list.contains("OCTOCAT"));
+        assertFalse(list.contains("octocat2"));
+        assertFalse(list.contains(null));
+    }
+
+    @Test
+    void entriesSeparatedByCommasAndWhitespace() {
+        AuthorList list = AuthorList.parse(" alice,bob\ncarol ,  dave\t");
+        assertTrue(list.contains("alice"));
+        assertTrue(list.contains("bob"));
+        assertTrue(list.contains("carol"));
+        assertTrue(list.contains("dave"));
+        assertFalse(list.contains(""));
+    }
+
+    @Test
+    void wildcards() {
+        AuthorList list = AuthorList.parse("*[bot], ci-?");
+        assertTrue(list.contains("dependabot[bot]"));
+        assertTrue(list.contains("Renovate[BOT]"));
+        assertFalse(list.contains("dependabot"));
+        assertTrue(list.contains("ci-1"));
+        assertFalse(list.contains("ci-12"));
+        assertFalse(list.contains("ci-"));
+    }
+
+    @Test
+    void patternCharactersAreLiteral() {
+        AuthorList list = AuthorList.parse("a.b*");
+        assertTrue(list.contains("a.bc"));
+        assertFalse(list.contains("axbc"));
+    }
+}
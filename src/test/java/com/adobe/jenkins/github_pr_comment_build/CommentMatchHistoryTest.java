@@ -0,0 +1,59 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommentMatchHistoryTest {
+
+    @Test
+    void hashOnlyDependsOnBody() {
+        assertEquals(CommentMatchHistory.hash("rebuild"), CommentMatchHistory.hash("rebuild"));
+        assertNotEquals(CommentMatchHistory.hash("rebuild"), CommentMatchHistory.hash("rebuild please"));
+    }
+
+    @Test
+    void recordsMatchingComments() {
+        CommentMatchHistory.record(1L, CommentMatchHistory.hash("rebuild"), Set.of("rebuild"));
+        CommentMatchHistory.Entry entry = CommentMatchHistory.get(1L);
+        assertEquals(CommentMatchHistory.hash("rebuild"), entry.getBodyHash());
+        assertEquals(Set.of("rebuild"), entry.getMatchedPatterns());
+    }
+
+    @Test
+    void forgetsCommentsNoLongerMatching() {
+        CommentMatchHistory.record(2L, CommentMatchHistory.hash("rebuild"), Set.of("rebuild"));
+        CommentMatchHistory.record(2L, CommentMatchHistory.hash("thanks"), Set.of());
+        assertNull(CommentMatchHistory.get(2L));
+        assertNull(CommentMatchHistory.get(3L));
+    }
+
+    @Test
+    void editOfMatchingCommentDoesNotTriggerAgain() {
+        CommentMatchHistory.record(4L, CommentMatchHistory.hash("rebuild"), Set.of("rebuild"));
+        CommentMatchHistory.Entry previous = CommentMatchHistory.get(4L);
+        assertTrue(IssueCommentGHEventSubscriber.matchedBeforeEdit("rebuild", previous, null));
+        assertFalse(IssueCommentGHEventSubscriber.matchedBeforeEdit("retest", previous, null));
+    }
+
+    @Test
+    void editDecisionFallsBackToPreviousBody() {
+        assertTrue(IssueCommentGHEventSubscriber.matchedBeforeEdit("rebuild", null, "Rebuild"));
+        assertFalse(IssueCommentGHEventSubscriber.matchedBeforeEdit("rebuild", null, "typo: rebiuld"));
+        // Unknown previous outcome, the edit may trigger
+        assertFalse(IssueCommentGHEventSubscriber.matchedBeforeEdit("rebuild", null, null));
+    }
+
+    @Test
+    void recordedOutcomeTakesPrecedenceOverPreviousBody() {
+        CommentMatchHistory.record(5L, CommentMatchHistory.hash("retest"), Set.of("retest"));
+        assertFalse(IssueCommentGHEventSubscriber.matchedBeforeEdit("rebuild", CommentMatchHistory.get(5L),
+                "rebuild"));
+    }
+}
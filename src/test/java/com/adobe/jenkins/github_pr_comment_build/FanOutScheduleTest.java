@@ -0,0 +1,73 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutScheduleTest {
+
+    @Test
+    void singleBatchStartsAtOnce() {
+        FanOutSchedule schedule = new FanOutSchedule(10, 0, 60);
+        assertFalse(schedule.isSpread());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, schedule.nextQuietPeriod());
+        }
+        assertFalse(new FanOutSchedule(3, 5, 60).isSpread());
+    }
+
+    @Test
+    void batchesAreSpreadInOrderOverTheWindow() {
+        // 4 batches of 3 over 60 seconds: at 0, 20, 40 and 60 seconds, each build up to half a slot early
+        FanOutSchedule schedule = new FanOutSchedule(10, 3, 60);
+        assertTrue(schedule.isSpread());
+        int[][] ranges = { { 0, 0 }, { 10, 20 }, { 30, 40 }, { 50, 60 } };
+        int previous = 0;
+        for (int i = 0; i < 10; i++) {
+            int quietPeriod = schedule.nextQuietPeriod();
+            int[] range = ranges[i / 3];
+            assertTrue(quietPeriod >= range[0] && quietPeriod <= range[1], "build " + i + ": " + quietPeriod);
+            assertTrue(quietPeriod >= previous, "build " + i + " starts before the previous batch");
+            previous = quietPeriod;
+        }
+    }
+
+    @Test
+    void laterBatchesNeverStartRightAway() {
+        FanOutSchedule schedule = new FanOutSchedule(4, 1, 0);
+        assertEquals(0, schedule.nextQuietPeriod());
+        for (int i = 1; i < 4; i++) {
+            assertTrue(schedule.nextQuietPeriod() >= 1);
+        }
+    }
+
+    @Test
+    void shortestFirstWithUnknownLast() {
+        List<String> jobs = new ArrayList<>(List.of("unknown", "long", "short", "medium"));
+        Map<String, Long> durations = Map.of("unknown", -1L, "long", 3_600_000L, "short", 60_000L, "medium", 600_000L);
+        FanOutSchedule.sortShortestFirst(jobs, durations::get);
+        assertEquals(List.of("short", "medium", "long", "unknown"), jobs);
+    }
+
+    @Test
+    void shortestFirstEstimatesEachJobOnce() {
+        List<String> jobs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            jobs.add("job" + i);
+        }
+        Map<String, Integer> estimates = new HashMap<>();
+        FanOutSchedule.sortShortestFirst(jobs, job -> {
+            estimates.merge(job, 1, Integer::sum);
+            return 100 - job.length() * 10L - job.hashCode() % 7;
+        });
+        assertEquals(50, estimates.size());
+        estimates.forEach((job, count) -> assertEquals(1, count, job));
+    }
+}
@@ -0,0 +1,175 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import org.junit.jupiter.api.Test;
+import org.kohsuke.github.GHFileNotFoundException;
+import org.kohsuke.github.HttpException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GitHubCircuitBreakerTest {
+    private static final long OPEN_MILLIS = 200;
+
+    static {
+        // Read when the breaker class is initialized, on its first use by these tests
+        System.setProperty("com.adobe.jenkins.github_pr_comment_build.GitHubCircuitBreaker.openMillis",
+                String.valueOf(OPEN_MILLIS));
+    }
+
+    private static final GitHubCircuitBreaker.Call<String> SERVER_ERROR = () -> {
+        throw new HttpException("Bad gateway", 502, "Bad Gateway", "https://api.example/repos/o/r");
+    };
+
+    private static String endpoint(String apiUri) {
+        return apiUri + " test";
+    }
+
+    private static void fail(String apiUri, int times) {
+        for (int i = 0; i < times; i++) {
+            assertThrows(HttpException.class, () -> GitHubCircuitBreaker.call(apiUri, "test", SERVER_ERROR));
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static boolean isOpen(String apiUri) {
+        return GitHubCircuitBreaker.getOpenEndpoints().containsKey(endpoint(apiUri));
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        String apiUri = "https://opens.example";
+        fail(apiUri, 4);
+        assertFalse(isOpen(apiUri));
+        fail(apiUri, 1);
+        assertTrue(isOpen(apiUri));
+        AtomicBoolean called = new AtomicBoolean();
+        assertThrows(GitHubCircuitBreaker.OpenException.class, () -> GitHubCircuitBreaker.call(apiUri, "test", () -> {
+            called.set(true);
+            return "ok";
+        }));
+        assertFalse(called.get());
+    }
+
+    @Test
+    void endpointsAreIndependent() throws IOException {
+        String apiUri = "https://independent.example";
+        fail(apiUri, 5);
+        assertEquals("ok", GitHubCircuitBreaker.call(apiUri, "other", () -> "ok"));
+    }
+
+    @Test
+    void successResetsFailures() throws IOException {
+        String apiUri = "https://reset.example";
+        fail(apiUri, 4);
+        assertEquals("ok", GitHubCircuitBreaker.call(apiUri, "test", () -> "ok"));
+        fail(apiUri, 4);
+        assertFalse(isOpen(apiUri));
+    }
+
+    @Test
+    void timeoutsCount() {
+        String apiUri = "https://timeout.example";
+        for (int i = 0; i < 5; i++) {
+            assertThrows(SocketTimeoutException.class, () -> GitHubCircuitBreaker.call(apiUri, "test", () -> {
+                throw new SocketTimeoutException("Read timed out");
+            }));
+        }
+        assertTrue(isOpen(apiUri));
+    }
+
+    @Test
+    void clientErrorsDoNotCount() throws IOException {
+        String apiUri = "https://client.example";
+        fail(apiUri, 4);
+        for (int i = 0; i < 10; i++) {
+            assertThrows(GHFileNotFoundException.class, () -> GitHubCircuitBreaker.call(apiUri, "test", () -> {
+                throw new GHFileNotFoundException("Not Found");
+            }));
+            assertThrows(HttpException.class, () -> GitHubCircuitBreaker.call(apiUri, "test", () -> {
+                throw new HttpException("Forbidden", 403, "Forbidden", "https://api.example/repos/o/r");
+            }));
+        }
+        assertFalse(isOpen(apiUri));
+        // Neither did they reset the failures
+        fail(apiUri, 1);
+        assertTrue(isOpen(apiUri));
+    }
+
+    @Test
+    void successfulTrialCloses() throws Exception {
+        String apiUri = "https://trial.example";
+        fail(apiUri, 5);
+        Thread.sleep(OPEN_MILLIS * 2);
+        assertEquals("ok", GitHubCircuitBreaker.call(apiUri, "test", () -> "ok"));
+        assertFalse(isOpen(apiUri));
+    }
+
+    @Test
+    void failedTrialReopens() throws Exception {
+        String apiUri = "https://reopen.example";
+        fail(apiUri, 5);
+        Thread.sleep(OPEN_MILLIS * 2);
+        fail(apiUri, 1);
+        assertTrue(isOpen(apiUri));
+        assertThrows(GitHubCircuitBreaker.OpenException.class,
+                () -> GitHubCircuitBreaker.call(apiUri, "test", () -> "ok"));
+    }
+
+    @Test
+    void outdatedCallDoesNotEndTrial() throws Exception {
+        String apiUri = "https://outdated.example";
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch outdatedStarted = new CountDownLatch(1);
+            CountDownLatch releaseOutdated = new CountDownLatch(1);
+            Future<String> outdated = executor.submit(() -> GitHubCircuitBreaker.call(apiUri, "test", () -> {
+                outdatedStarted.countDown();
+                await(releaseOutdated);
+                return "outdated";
+            }));
+            outdatedStarted.await();
+            fail(apiUri, 5);
+            Thread.sleep(OPEN_MILLIS * 2);
+
+            CountDownLatch trialStarted = new CountDownLatch(1);
+            CountDownLatch releaseTrial = new CountDownLatch(1);
+            Future<String> trial = executor.submit(() -> GitHubCircuitBreaker.call(apiUri, "test", () -> {
+                trialStarted.countDown();
+                await(releaseTrial);
+                return "trial";
+            }));
+            trialStarted.await();
+
+            releaseOutdated.countDown();
+            assertEquals("outdated", outdated.get());
+            // The outdated success neither closed the breaker nor let a second trial through
+            assertTrue(isOpen(apiUri));
+            assertThrows(GitHubCircuitBreaker.OpenException.class,
+                    () -> GitHubCircuitBreaker.call(apiUri, "test", () -> "second trial"));
+
+            releaseTrial.countDown();
+            assertEquals("trial", trial.get());
+            assertFalse(isOpen(apiUri));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiteralPrefilterTest {
+
+    @Test
+    void mayMatchWhenLiteralIsPresent() {
+        LiteralPrefilter.Scan scan = LiteralPrefilter.scan("owner/present", "Please REBUILD this");
+        assertTrue(scan.mayMatch(".*rebuild.*"));
+        assertFalse(scan.mayMatch(".*retest.*"));
+    }
+
+    @Test
+    void mayMatchWithoutLiteral() {
+        LiteralPrefilter.Scan scan = LiteralPrefilter.scan("owner/without", "anything");
+        assertTrue(scan.mayMatch("rebuild|retest"));
+        assertTrue(scan.mayMatch(".*"));
+        assertTrue(scan.mayMatch("\\x41BC"));
+    }
+
+    @Test
+    void mayMatchWithoutText() {
+        assertTrue(LiteralPrefilter.scan("owner/null", null).mayMatch("rebuild"));
+    }
+
+    @Test
+    void overlappingLiterals() {
+        LiteralPrefilter.Scan scan = LiteralPrefilter.scan("owner/overlap", "ushers");
+        assertTrue(scan.mayMatch(".*she.*"));
+        assertTrue(scan.mayMatch(".*he.*"));
+        assertTrue(scan.mayMatch(".*hers"));
+        assertFalse(scan.mayMatch(".*his.*"));
+        assertFalse(scan.mayMatch("shears"));
+    }
+
+    @Test
+    void literalsAreSharedAcrossScans() {
+        LiteralPrefilter.scan("Owner/Shared", "x").mayMatch("deploy");
+        LiteralPrefilter.Scan scan = LiteralPrefilter.scan("owner/shared", "/DEPLOY staging");
+        assertTrue(scan.mayMatch(".*staging"));
+        assertTrue(scan.mayMatch("/deploy.*"));
+        assertFalse(scan.mayMatch("rollback"));
+    }
+}
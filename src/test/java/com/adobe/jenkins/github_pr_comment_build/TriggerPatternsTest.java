@@ -0,0 +1,110 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TriggerPatternsTest {
+
+    @Test
+    void literalOfPlainPattern() {
+        assertEquals("rebuild", TriggerPatterns.requiredLiteral("rebuild"));
+        assertEquals("rebuild", TriggerPatterns.requiredLiteral("REBUILD"));
+        assertEquals("rebuild", TriggerPatterns.requiredLiteral(".*rebuild.*"));
+    }
+
+    @Test
+    void literalAroundAnchorsGroupsAndClasses() {
+        assertEquals("/rebuild", TriggerPatterns.requiredLiteral("(?i)^/rebuild\\s*$"));
+        assertEquals("def", TriggerPatterns.requiredLiteral("[abc]def"));
+        assertEquals("test", TriggerPatterns.requiredLiteral("re(build)?test"));
+    }
+
+    @Test
+    void literalWithEscapedPunctuation() {
+        assertEquals("re.build", TriggerPatterns.requiredLiteral("re\\.build"));
+        assertEquals("ci: run", TriggerPatterns.requiredLiteral("ci\\: run"));
+    }
+
+    @Test
+    void literalDropsOptionalCharacters() {
+        assertEquals("r please", TriggerPatterns.requiredLiteral("colou?r please"));
+        assertEquals("retes", TriggerPatterns.requiredLiteral("retest*"));
+        assertEquals("again", TriggerPatterns.requiredLiteral("x{2,3}again"));
+    }
+
+    @Test
+    void noLiteralForAlternations() {
+        assertNull(TriggerPatterns.requiredLiteral("rebuild|retest"));
+    }
+
+    @Test
+    void noLiteralForUnsupportedFlags() {
+        assertNull(TriggerPatterns.requiredLiteral("(?x)re build"));
+        assertNull(TriggerPatterns.requiredLiteral("(?iu)rebuild"));
+    }
+
+    @Test
+    void noLiteralForEscapesWithArguments() {
+        assertNull(TriggerPatterns.requiredLiteral("\\x41BC"));
+        assertNull(TriggerPatterns.requiredLiteral("\\x{41}BC"));
+        assertNull(TriggerPatterns.requiredLiteral("caf\\u00e9"));
+        assertNull(TriggerPatterns.requiredLiteral("\\cXyz"));
+        assertNull(TriggerPatterns.requiredLiteral("\\0101bc"));
+        assertNull(TriggerPatterns.requiredLiteral("(?<n>ab)\\k<n>cd"));
+        assertNull(TriggerPatterns.requiredLiteral("\\N{LATIN SMALL LETTER A}bc"));
+        assertNull(TriggerPatterns.requiredLiteral("(a)\\12bc"));
+    }
+
+    @Test
+    void noLiteralForQuotedOrShortPatterns() {
+        assertNull(TriggerPatterns.requiredLiteral("\\Qrebuild\\E"));
+        assertNull(TriggerPatterns.requiredLiteral("a"));
+        assertNull(TriggerPatterns.requiredLiteral(".*"));
+        assertNull(TriggerPatterns.requiredLiteral(null));
+    }
+
+    @Test
+    void extractedLiteralsAreContainedInMatches() {
+        String[][] cases = {
+                { "(?i)^/rebuild\\s*$", "/REBUILD " },
+                { "colou?r please", "Color please" },
+                { "re\\.build", "Re.Build" },
+        };
+        for (String[] c : cases) {
+            assertTrue(TriggerPatterns.matches(c[0], c[1]), c[0]);
+            String literal = TriggerPatterns.requiredLiteral(c[0]);
+            assertTrue(c[1].toLowerCase(Locale.ROOT).contains(literal), c[0]);
+        }
+    }
+
+    @Test
+    void matchesIgnoresCase() {
+        assertTrue(TriggerPatterns.matches(".*rebuild.*", "Please REBUILD"));
+        assertFalse(TriggerPatterns.matches("rebuild", "retest"));
+    }
+
+    @Test
+    void budgetStopsCatastrophicBacktracking() {
+        String input = "a".repeat(40) + "!";
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertFalse(TriggerPatterns.matches("(a+)+$", input)));
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertFalse(TriggerPatterns.matches("(a|aa)+b", input)));
+    }
+
+    @Test
+    void invalidPatternsNeverMatch() {
+        assertFalse(TriggerPatterns.matches("(rebuild", "(rebuild"));
+        // Served from the cache of invalid patterns
+        assertFalse(TriggerPatterns.matches("(rebuild", "(rebuild"));
+        assertFalse(TriggerPatterns.matches(null, "rebuild"));
+    }
+}
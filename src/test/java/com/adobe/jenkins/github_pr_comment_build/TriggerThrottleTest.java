@@ -0,0 +1,63 @@
+package com.adobe.jenkins.github_pr_comment_build;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TriggerThrottleTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    void allowsBurstUpToCapacity() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(TriggerThrottle.PULL_REQUESTS.tryAcquire("burst", 3, HOUR));
+        }
+        assertFalse(TriggerThrottle.PULL_REQUESTS.tryAcquire("burst", 3, HOUR));
+    }
+
+    @Test
+    void noLimit() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(TriggerThrottle.PULL_REQUESTS.tryAcquire("unlimited", 0, HOUR));
+        }
+    }
+
+    @Test
+    void keysHaveTheirOwnBucket() {
+        assertTrue(TriggerThrottle.PULL_REQUESTS.tryAcquire("first", 1, HOUR));
+        assertFalse(TriggerThrottle.PULL_REQUESTS.tryAcquire("first", 1, HOUR));
+        assertTrue(TriggerThrottle.PULL_REQUESTS.tryAcquire("second", 1, HOUR));
+    }
+
+    @Test
+    void refillsOverThePeriod() throws InterruptedException {
+        assertTrue(TriggerThrottle.PULL_REQUESTS.tryAcquire("refill", 1, 200));
+        assertFalse(TriggerThrottle.PULL_REQUESTS.tryAcquire("refill", 1, 200));
+        Thread.sleep(400);
+        assertTrue(TriggerThrottle.PULL_REQUESTS.tryAcquire("refill", 1, 200));
+        assertFalse(TriggerThrottle.PULL_REQUESTS.tryAcquire("refill", 1, 200));
+    }
+
+    @Test
+    void refillDoesNotExceedCapacity() throws InterruptedException {
+        assertTrue(TriggerThrottle.PULL_REQUESTS.tryAcquire("capped", 2, 1000));
+        Thread.sleep(3000);
+        // Three periods elapsed, yet only a burst of 2 is allowed
+        assertTrue(TriggerThrottle.PULL_REQUESTS.tryAcquire("capped", 2, 1000));
+        assertTrue(TriggerThrottle.PULL_REQUESTS.tryAcquire("capped", 2, 1000));
+        assertFalse(TriggerThrottle.PULL_REQUESTS.tryAcquire("capped", 2, 1000));
+    }
+
+    @Test
+    void countsRefusals() {
+        long before = TriggerThrottle.AUTHORS.getThrottledCount();
+        assertTrue(TriggerThrottle.AUTHORS.tryAcquire("counted", 1, HOUR));
+        assertFalse(TriggerThrottle.AUTHORS.tryAcquire("counted", 1, HOUR));
+        assertFalse(TriggerThrottle.AUTHORS.tryAcquire("counted", 1, HOUR));
+        assertEquals(before + 2, TriggerThrottle.AUTHORS.getThrottledCount());
+    }
+}